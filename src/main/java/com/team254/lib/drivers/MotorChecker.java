@@ -20,6 +20,29 @@ public abstract class MotorChecker<T> {
         public double mRunTimeSec = 4.0;
         public double mWaitTimeSec = 2.0;
         public double mRunOutputPercentage = 0.5;
+
+        // Spin every motor at once and read each motor's own RPM
+        public boolean mRunInParallel = false;
+        public boolean mCheckMotorRPM = false;
+    }
+
+    public static class MotorResult {
+        public final String mName;
+        public final double mCurrent;
+        public final double mRPM;
+        public final boolean mPassed;
+
+        public MotorResult(String name, double current, double rpm, boolean passed) {
+            mName = name;
+            mCurrent = current;
+            mRPM = rpm;
+            mPassed = passed;
+        }
+
+        @Override
+        public String toString() {
+            return mName + (mPassed ? " PASS" : " FAIL") + " current: " + mCurrent + " rpm: " + mRPM;
+        }
     }
 
     public static class MotorConfig<T> {
@@ -33,6 +56,7 @@ public abstract class MotorChecker<T> {
     }
 
     protected ArrayList<MotorConfig<T>> mMotorsToCheck;
+    protected ArrayList<MotorResult> mResults = new ArrayList<>();
 
     protected abstract void storeConfiguration();
 
@@ -42,6 +66,14 @@ public abstract class MotorChecker<T> {
 
     protected abstract double getMotorCurrent(T motor);
 
+    protected double getMotorRPM(T motor) {
+        return Double.NaN;
+    }
+
+    public ArrayList<MotorResult> getResults() {
+        return mResults;
+    }
+
     protected boolean checkMotorsImpl(Subsystem subsystem,
                                       ArrayList<MotorConfig<T>> motorsToCheck,
                                       CheckerConfig checkerConfig) {
@@ -60,42 +92,33 @@ public abstract class MotorChecker<T> {
             setMotorOutput(config.mMotor, 0.0);
         }
 
-        for (MotorConfig<T> config : motorsToCheck) {
-            System.out.println("Checking: " + config.mName);
-
-            setMotorOutput(config.mMotor, checkerConfig.mRunOutputPercentage);
+        if (checkerConfig.mRunInParallel) {
+            System.out.println("Checking " + motorsToCheck.size() + " motors in parallel");
+            for (MotorConfig<T> config : motorsToCheck) {
+                setMotorOutput(config.mMotor, checkerConfig.mRunOutputPercentage);
+            }
             Timer.delay(checkerConfig.mRunTimeSec);
 
-            // poll the interesting information
-            double current = getMotorCurrent(config.mMotor);
-            currents.add(current);
-            System.out.print("Current: " + current);
-
-            double rpm = Double.NaN;
-            if (checkerConfig.mRPMSupplier != null) {
-                rpm = checkerConfig.mRPMSupplier.getAsDouble();
-                rpms.add(rpm);
-                System.out.print(" RPM: " + rpm);
+            for (MotorConfig<T> config : motorsToCheck) {
+                failure |= !measure(config, checkerConfig, currents, rpms);
+            }
+            for (MotorConfig<T> config : motorsToCheck) {
+                setMotorOutput(config.mMotor, 0.0);
             }
-            System.out.print('\n');
+            Timer.delay(checkerConfig.mWaitTimeSec);
+        } else {
+            for (MotorConfig<T> config : motorsToCheck) {
+                System.out.println("Checking: " + config.mName);
 
-            setMotorOutput(config.mMotor, 0.0);
+                setMotorOutput(config.mMotor, checkerConfig.mRunOutputPercentage);
+                Timer.delay(checkerConfig.mRunTimeSec);
 
-            // perform checks
-            if (current < checkerConfig.mCurrentFloor) {
-                System.out.println(config.mName + " has failed current floor check vs " +
-                        checkerConfig.mCurrentFloor + "!!");
-                failure = true;
-            }
-            if (checkerConfig.mRPMSupplier != null) {
-                if (rpm < checkerConfig.mRPMFloor) {
-                    System.out.println(config.mName + " has failed rpm floor check vs " +
-                            checkerConfig.mRPMFloor + "!!");
-                    failure = true;
-                }
-            }
+                failure |= !measure(config, checkerConfig, currents, rpms);
 
-            Timer.delay(checkerConfig.mWaitTimeSec);
+                setMotorOutput(config.mMotor, 0.0);
+
+                Timer.delay(checkerConfig.mWaitTimeSec);
+            }
         }
 
         // run aggregate checks
@@ -123,5 +146,42 @@ public abstract class MotorChecker<T> {
 
         return !failure;
     }
+
+    private boolean measure(MotorConfig<T> config, CheckerConfig checkerConfig,
+                            ArrayList<Double> currents, ArrayList<Double> rpms) {
+        boolean failure = false;
+
+        // poll the interesting information
+        double current = getMotorCurrent(config.mMotor);
+        currents.add(current);
+        System.out.print(config.mName + " Current: " + current);
+
+        double rpm = Double.NaN;
+        boolean checkRPM = checkerConfig.mRPMSupplier != null || checkerConfig.mCheckMotorRPM;
+        if (checkRPM) {
+            rpm = checkerConfig.mRPMSupplier != null ? checkerConfig.mRPMSupplier.getAsDouble()
+                    : Math.abs(getMotorRPM(config.mMotor));
+            rpms.add(rpm);
+            System.out.print(" RPM: " + rpm);
+        }
+        System.out.print('\n');
+
+        // perform checks
+        if (current < checkerConfig.mCurrentFloor) {
+            System.out.println(config.mName + " has failed current floor check vs " +
+                    checkerConfig.mCurrentFloor + "!!");
+            failure = true;
+        }
+        if (checkRPM) {
+            if (!(rpm >= checkerConfig.mRPMFloor)) {
+                System.out.println(config.mName + " has failed rpm floor check vs " +
+                        checkerConfig.mRPMFloor + "!!");
+                failure = true;
+            }
+        }
+
+        mResults.add(new MotorResult(config.mName, current, rpm, !failure));
+        return !failure;
+    }
 }
 
@@ -24,6 +24,16 @@ public class TalonFXChecker extends MotorChecker<TalonFX> {
         return checker.checkMotorsImpl(subsystem, motorsToCheck, checkerConfig);
     }
 
+    public static boolean checkMotors(Subsystem subsystem,
+                                      ArrayList<MotorConfig<TalonFX>> motorsToCheck,
+                                      CheckerConfig checkerConfig,
+                                      ArrayList<MotorResult> results) {
+        TalonFXChecker checker = new TalonFXChecker();
+        boolean passed = checker.checkMotorsImpl(subsystem, motorsToCheck, checkerConfig);
+        results.addAll(checker.getResults());
+        return passed;
+    }
+
     @Override
     protected void storeConfiguration() {
         // record previous configuration for all talons
@@ -55,4 +65,9 @@ public class TalonFXChecker extends MotorChecker<TalonFX> {
         return motor.getStatorCurrent().getValue().in(Amp);
     }
 
+    @Override
+    protected double getMotorRPM(TalonFX motor) {
+        return motor.getRotorVelocity().getValueAsDouble() * 60.0;
+    }
+
 }
\ No newline at end of file
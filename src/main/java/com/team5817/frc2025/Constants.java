@@ -13,11 +13,13 @@ import com.ctre.phoenix6.signals.NeutralModeValue;
 import com.ctre.phoenix6.signals.SensorDirectionValue;
 import com.pathplanner.lib.config.RobotConfig;
 import com.team5817.frc2025.subsystems.vision.VisionDeviceConstants;
+import com.team5817.lib.drivers.RollerPieceDetector.PieceDetectorConstants;
 import com.team5817.lib.drivers.ServoMotorSubsystem.ServoMotorSubsystemConstants;
 import com.team5817.lib.drivers.ServoMotorSubsystem.TalonFXConstants;
 import com.team5817.lib.drivers.ServoMotorSubsystemWithCancoder.AbsoluteEncoderConstants;
 import com.team5817.lib.swerve.SwerveModule.SwerveModuleConstants;
 import com.team254.lib.drivers.CanDeviceId;
+import com.team254.lib.drivers.MotorChecker.CheckerConfig;
 import com.team254.lib.geometry.Translation2d;
 import com.team254.lib.motion.MotionProfileConstraints;
 import com.team254.lib.swerve.SwerveDriveKinematics;
@@ -81,6 +83,29 @@ public class Constants {
 
     public static final double kDefaultDistanceToReef = 3;
 
+	/**
+	 * Constants related to the pit self-test.
+	 */
+	public static final class SelfTestConstants {
+
+		/**
+		 * Spins every motor in a group at once and checks each motor's own RPM.
+		 *
+		 * @return a fresh checker config
+		 */
+		public static CheckerConfig ParallelCheckerConfig() {
+			CheckerConfig config = new CheckerConfig();
+			config.mRunInParallel = true;
+			config.mCheckMotorRPM = true;
+			config.mRunTimeSec = 1.5;
+			config.mWaitTimeSec = 0.5;
+			config.mRunOutputPercentage = 0.3;
+			config.mCurrentFloor = 2.0;
+			config.mRPMFloor = 1000.0;
+			return config;
+		}
+	}
+
 	/**
 	 * Constants related to the Swerve drive system.
 	 */
@@ -340,8 +365,48 @@ public class Constants {
 		public static final Matrix<N2, N1> kLocalMeasurementStdDevs = VecBuilder.fill(Math.pow(0.01, 1),
 				Math.pow(0.01, 1));
 
+		// Odometry history is kept for a window of time, sized from the odometry rate
+		public static final double kOdometryFrequencyHz = 250.0;
+		public static final double kPoseHistoryWindowSeconds = 1.5;
+		public static final int kPoseHistoryCapacity = (int) Math
+				.ceil(kPoseHistoryWindowSeconds * kOdometryFrequencyHz * 1.2);
+		// Vision older than this is dropped, and the filter is never rewound further back
+		public static final double kVisionMaxAgeSeconds = 0.5;
+
+		// Vision std dev = base * (1 + k_dist * avg tag distance^2) * (1 + k_amb * ambiguity) / sqrt(tag count)
+		public static final double kVisionBaseStdDev = 0.01;
+		public static final double kVisionDistanceStdDevCoefficient = 0.1;
+		public static final double kVisionAmbiguityStdDevCoefficient = 2.0;
+		// Vision re-seeds the filter after this many frames in a row fail the innovation gate,
+		// e.g. after a wheel slip the filter's small covariance would otherwise never accept
+		public static final int kVisionReseedInnovationRejects = 10;
+
 		public static VisionDeviceConstants kDomVisionDevice = new VisionDeviceConstants(); // dot 13
 		public static VisionDeviceConstants kSubVisionDevice = new VisionDeviceConstants(); // dot 12
+		public static VisionDeviceConstants kRightVisionDevice = new VisionDeviceConstants();
+		public static VisionDeviceConstants kLeftVisionDevice = new VisionDeviceConstants();
+		public static VisionDeviceConstants kUpVisionDevice = new VisionDeviceConstants();
+
+		// Simulated Limelights, noise on the published botpose grows with tag distance
+		public static final double kSimVisionTranslationStdDevPerMeter = 0.02;
+		public static final double kSimVisionRotationStdDevDegrees = 0.5;
+		public static final double kSimVisionCaptureLatencyMs = 12.0;
+		public static final double kSimVisionPipelineLatencyMs = 18.0;
+		public static final double kSimVisionFps = 30.0;
+		// Sim only: the up camera hasn't been measured, this just gives the simulated one somewhere to sit
+		public static final Transform3d kSimUpRobotToCamera = new Transform3d(Units.inchesToMeters(-6.0), 0.0,
+				Units.inchesToMeters(30.0), new Rotation3d(0, Math.toRadians(-20.0), Math.PI));
+
+		// Camera health, a camera is degraded after a short stall or slow frames and lost after a long stall
+		public static final double kVisionStallTimeoutSeconds = 0.1;
+		public static final double kVisionLostTimeoutSeconds = 0.5;
+		public static final double kVisionDegradedLatencyMs = 60.0;
+		public static final double kVisionDegradedFrameIntervalSeconds = 0.1;
+		public static final double kVisionDegradedStdDevScale = 3.0;
+		public static final int kVisionHealthWindowFrames = 50;
+
+		// Fuse the multi-camera raw fiducial solve instead of each camera's MegaTag2 pose
+		public static final boolean kUseMultiCameraSolve = false;
 
 		public static List<Integer> redTagIDFilters;
 		public static List<Integer> blueTagIDFilters;
@@ -361,6 +426,18 @@ public class Constants {
 					Units.inchesToMeters(0),
 					new Rotation3d(0, 0, 0));// TODO set these to correct values
 
+			// Right and left sit in the Sub and Dom mounts
+			kRightVisionDevice.kTableName = "limelight-right";
+			kRightVisionDevice.kRobotToCamera = kSubVisionDevice.kRobotToCamera;
+
+			kLeftVisionDevice.kTableName = "limelight-left";
+			kLeftVisionDevice.kRobotToCamera = kDomVisionDevice.kRobotToCamera;
+
+			kUpVisionDevice.kTableName = "limelight-up";
+			if (mode == Mode.SIM) {
+				kUpVisionDevice.kRobotToCamera = kSimUpRobotToCamera;
+			}// TODO measure on the robot
+
 		}
 
 	}
@@ -634,6 +711,29 @@ public class Constants {
 			config.MotorOutput.NeutralMode = NeutralModeValue.Coast;
 			return config;
 		}
+
+		public static final PieceDetectorConstants kPieceDetectorConstants = new PieceDetectorConstants();
+
+		// Sequences waiting on the detector move on after these, like the old timed waits did
+		public static final double kPieceAcquireTimeoutSeconds = 2.0;
+		public static final double kPieceReleaseTimeoutSeconds = 1.0;
+
+		// In simulation a piece leaves after the rollers have run outward this long
+		public static final double kSimReleaseSeconds = 0.2;
+
+		static {
+			kPieceDetectorConstants.kName = "EndEffectorRollers";
+
+			kPieceDetectorConstants.kUpdateFrequencyHz = 250.0;
+
+			kPieceDetectorConstants.kFreeSpinVelocity = 10.0; // rotations / s
+			kPieceDetectorConstants.kStallVelocity = 2.0; // rotations / s
+			kPieceDetectorConstants.kAcquireCurrentThreshold = 60.0; // amps
+			kPieceDetectorConstants.kReleaseCurrentThreshold = 25.0; // amps
+
+			kPieceDetectorConstants.kAcquireDebounceSamples = 3; // 12 ms at 250 Hz
+			kPieceDetectorConstants.kReleaseDebounceSamples = 3;
+		}
 	}
 	public static final boolean isComp = isComp();
 	private static boolean isComp(){
@@ -67,6 +67,8 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
  * The main robot class that extends LoggedRobot and contains the robot's lifecycle methods.
  */
 public class Robot extends LoggedRobot {
+  private static final String kRunSelfTestKey = "Run Self Test";
+
   public static Pose3d[] mechPoses = new Pose3d[6];
   public static Pose3d[] desMechPoses = new Pose3d[6];
 
@@ -154,6 +156,11 @@ public class Robot extends LoggedRobot {
         IntakeRollers.getInstance()
         // LEDs.getInstance()
         );
+    mSubsystemManager.setIndependentSubsystems(
+        Drive.getInstance(),
+        IntakeRollers.getInstance(),
+        EndEffectorRollers.getInstance(),
+        Indexer.getInstance());
 
     mSubsystemManager.registerEnabledLoops(mEnabledLooper);
     mEnabledLooper.start();
@@ -186,6 +193,8 @@ public class Robot extends LoggedRobot {
   public void autonomousInit() {
     neverEnabled = false;
     Elastic.selectTab("Autonomous");
+    // The preloaded coral went in before the detector was watching
+    EndEffectorRollers.getInstance().setHasPiece(true);
     mAutoExecuter.start();
     // Superstructure.getInstance().setState(Superstructure.AUTO);
     // autoExecuter.setAuto(auto);
@@ -273,6 +282,8 @@ public class Robot extends LoggedRobot {
   @Override
   public void testInit() {
     Elastic.selectTab("Systems Test");
+    // The self-test spins motors, only run it when someone asks for it
+    SmartDashboard.putBoolean(kRunSelfTestKey, false);
     // mAutoExecuter.setAuto(new TestRoutine()); 
 
     // mAutoExecuter.setAuto(new Characterize(IntakeDeploy.getInstance(),true))
@@ -287,6 +298,10 @@ public class Robot extends LoggedRobot {
    */      
   @Override
   public void testPeriodic() {
+    if (SmartDashboard.getBoolean(kRunSelfTestKey, false)) {
+      SmartDashboard.putBoolean(kRunSelfTestKey, false);
+      mSubsystemManager.startSelfTest();
+    }
 
     controls.testMode();
     controlBoard.update();
@@ -1,14 +1,17 @@
 package com.team5817.frc2025;
 
 import edu.wpi.first.math.Nat;
-import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.numbers.N2;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Timer;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.littletonrobotics.junction.Logger;
 
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Translation2d;
@@ -16,8 +19,10 @@ import com.team254.lib.geometry.Twist2d;
 import com.team254.lib.util.InterpolatingDouble;
 import com.team254.lib.util.InterpolatingTreeMap;
 import com.team254.lib.util.MovingAverageTwist2d;
+import com.team5817.frc2025.Constants.PoseEstimatorConstants;
 import com.team5817.frc2025.subsystems.vision.VisionPoseAcceptor;
-import com.team5817.lib.util.UnscentedKalmanFilter;
+import com.team5817.lib.util.LinearDiagonalKalmanFilter;
+import com.team5817.lib.util.PoseHistoryBuffer;
 
 /**
  * The RobotState class tracks the robot's position on the field using odometry and vision updates.
@@ -26,17 +31,128 @@ public class RobotState {
     // Existing member variables
     private static RobotState mInstance;
     private Optional<VisionUpdate> mLatestVisionUpdate;
-    private UnscentedKalmanFilter<N2, N2, N2> mKalmanFilter;
-    private VisionPoseAcceptor mPoseAcceptor;
+    private LinearDiagonalKalmanFilter<N2, N2> mKalmanFilter;
+    private final Map<String, VisionPoseAcceptor> mPoseAcceptors = new HashMap<>();
     private Pose2d mDisplayVisionPose;
     private boolean mHasBeenEnabled = false;
 
 
     private static final int kObservationBufferSize = 50;
     private Optional<Translation2d> initialPoseError = Optional.empty();
-    private InterpolatingTreeMap<InterpolatingDouble, Pose2d> poseFromOdom;
+    private PoseHistoryBuffer poseFromOdom;
     private InterpolatingTreeMap<InterpolatingDouble, Translation2d> visionPoseComponent;
 
+    private int mStaleVisionCount = 0;
+    private int mReplayRejectedCount = 0;
+    private int mConsecutiveInnovationRejects = 0;
+    private int mVisionReseedCount = 0;
+    private final List<VisionUpdate> mSingleVisionUpdate = new ArrayList<>(1);
+    private final List<VisionUpdate> mAcceptedVisionUpdates = new ArrayList<>();
+    private final Map<String, long[]> mFusedFrameCounts = new HashMap<>();
+
+    // Predicts used to step a fixed 0.01 s once per loop, and the std devs were tuned
+    // for that. R is still discretized with it, and Q is scaled so P grows at the
+    // same rate per second now that predicts cover the real time between updates.
+    private static final double kTunedPredictDtSeconds = 0.01;
+    private static final double kProcessStdDevScale = Math.sqrt(kTunedPredictDtSeconds / Constants.kLooperDt);
+
+    // Filter history used to fuse late vision measurements at the time they were taken
+    private static final int kMaxFilterEvents = 256;
+    private final FilterEventHistory mFilterEvents = new FilterEventHistory(kMaxFilterEvents);
+    private double mFilterTimestamp = 0.0;
+
+    /**
+     * A predict or correct applied to the Kalman filter, with the filter state
+     * right after it. Predicts run from the previous event's time to this one.
+     */
+    private static class FilterEvent {
+        double timestamp;
+        boolean isCorrection;
+        double errorX;
+        double errorY;
+        double stdDev;
+        final double[] xHat = new double[2];
+        final double[] P = new double[2];
+
+        void set(double timestamp, boolean isCorrection, double errorX, double errorY, double stdDev) {
+            this.timestamp = timestamp;
+            this.isCorrection = isCorrection;
+            this.errorX = errorX;
+            this.errorY = errorY;
+            this.stdDev = stdDev;
+        }
+    }
+
+    /**
+     * Ring buffer of filter events, oldest first. The events are allocated once
+     * and reused; adding to a full buffer drops the oldest.
+     */
+    private static class FilterEventHistory {
+        private final FilterEvent[] mEvents;
+        private int mHead = 0;
+        private int mSize = 0;
+
+        FilterEventHistory(int capacity) {
+            mEvents = new FilterEvent[capacity];
+            for (int i = 0; i < capacity; i++) {
+                mEvents[i] = new FilterEvent();
+            }
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        FilterEvent get(int i) {
+            return mEvents[(mHead + i) % mEvents.length];
+        }
+
+        void clear() {
+            mHead = 0;
+            mSize = 0;
+        }
+
+        void removeFirst() {
+            mHead = (mHead + 1) % mEvents.length;
+            mSize--;
+        }
+
+        /**
+         * @return The new newest event, to be filled in.
+         */
+        FilterEvent add() {
+            return insert(mSize);
+        }
+
+        /**
+         * Makes room at an index, shifting the events after it back by one.
+         *
+         * @return The new event at that index, to be filled in.
+         */
+        FilterEvent insert(int index) {
+            if (mSize == mEvents.length) {
+                removeFirst();
+                index = Math.max(index - 1, 0);
+            }
+            FilterEvent spare = get(mSize);
+            for (int i = mSize; i > index; i--) {
+                mEvents[(mHead + i) % mEvents.length] = get(i - 1);
+            }
+            mEvents[(mHead + index) % mEvents.length] = spare;
+            mSize++;
+            return spare;
+        }
+    }
+
+    // Derived poses, cached until the next odometry or vision write
+    private Map.Entry<InterpolatingDouble, Pose2d> mCachedLatestPoseFromOdom = null;
+    private Pose2d mCachedLatestGlobalKalmanPose = null;
+    private Twist2d mCachedSmoothedVelocity = null;
+    private double mCachedGlobalKalmanTimestamp = Double.NaN;
+    private Pose2d mCachedGlobalKalmanPose = null;
+    private long mPoseCacheHits = 0;
+    private long mPoseCacheMisses = 0;
+
     private Twist2d PredictedVelocity;
     private Twist2d MeasuredVelocity;
     private MovingAverageTwist2d filteredMeasuredVelocity;
@@ -68,7 +184,8 @@ public class RobotState {
      */
     public void reset(double start_time, Pose2d initialPose) {
         resetKalmanFilters();
-        poseFromOdom = new InterpolatingTreeMap<>(kObservationBufferSize);
+        mFilterTimestamp = start_time;
+        poseFromOdom = new PoseHistoryBuffer(PoseEstimatorConstants.kPoseHistoryCapacity);
         poseFromOdom.put(new InterpolatingDouble(start_time), initialPose);
         visionPoseComponent = new InterpolatingTreeMap<>(kObservationBufferSize);
         visionPoseComponent.put(new InterpolatingDouble(start_time), Translation2d.identity());
@@ -78,9 +195,41 @@ public class RobotState {
         filteredMeasuredVelocity = new MovingAverageTwist2d(25);
         mLatestVisionUpdate = Optional.empty();
         mDisplayVisionPose = Pose2d.identity();
-        mPoseAcceptor = new VisionPoseAcceptor();
+        mPoseAcceptors.clear();
         initialPoseError = Optional.empty();
+        mConsecutiveInnovationRejects = 0;
+        invalidatePoseCache();
+
+    }
+
+    /**
+     * Drops every cached derived pose. Called on every write to the odometry
+     * history, the vision offsets or the velocities.
+     */
+    private void invalidatePoseCache() {
+        mCachedLatestPoseFromOdom = null;
+        mCachedLatestGlobalKalmanPose = null;
+        mCachedSmoothedVelocity = null;
+        mCachedGlobalKalmanTimestamp = Double.NaN;
+        mCachedGlobalKalmanPose = null;
+    }
+
+    /**
+     * Returns how many derived pose lookups were served from the cache.
+     * 
+     * @return the number of cache hits
+     */
+    public long getPoseCacheHits() {
+        return mPoseCacheHits;
+    }
 
+    /**
+     * Returns how many derived pose lookups had to be computed.
+     * 
+     * @return the number of cache misses
+     */
+    public long getPoseCacheMisses() {
+        return mPoseCacheMisses;
     }
 
     /**
@@ -94,14 +243,112 @@ public class RobotState {
      * Resets the Kalman filters.
      */
     public void resetKalmanFilters() {
-        mKalmanFilter = new UnscentedKalmanFilter<>(
-                Nat.N2(),
+        // Identity process and measurement models, so a diagonal linear filter is exact
+        mKalmanFilter = new LinearDiagonalKalmanFilter<>(
                 Nat.N2(),
-                (x, u) -> VecBuilder.fill(0.0, 0.0),
-                (x, u) -> x,
-                Constants.kStateStdDevs,
-                Constants.kLocalMeasurementStdDevs, .01);
+                Constants.kStateStdDevs.times(kProcessStdDevScale),
+                Constants.kLocalMeasurementStdDevs, kTunedPredictDtSeconds);
+        mFilterEvents.clear();
+    }
 
+    /**
+     * Records the filter state right after an event.
+     */
+    private void snapshotFilterState(FilterEvent event) {
+        for (int i = 0; i < 2; i++) {
+            event.xHat[i] = mKalmanFilter.getXhat(i);
+            event.P[i] = mKalmanFilter.getP(i, i);
+        }
+    }
+
+    /**
+     * Trims the filter history to the pose history window.
+     */
+    private void trimFilterEvents() {
+        double oldest = mFilterTimestamp - PoseEstimatorConstants.kPoseHistoryWindowSeconds;
+        while (mFilterEvents.size() > 1 && mFilterEvents.get(0).timestamp < oldest) {
+            mFilterEvents.removeFirst();
+        }
+    }
+
+    /**
+     * Brings the filter forward to an event's time and applies it.
+     */
+    private void applyFilterEvent(FilterEvent event) {
+        double dt = event.timestamp - mFilterTimestamp;
+        if (dt > 0.0) {
+            mKalmanFilter.predict(dt);
+            mFilterTimestamp = event.timestamp;
+        }
+        if (event.isCorrection) {
+            invalidatePoseCache();
+            mKalmanFilter.correct(0, event.errorX, event.stdDev);
+            mKalmanFilter.correct(1, event.errorY, event.stdDev);
+            visionPoseComponent.put(new InterpolatingDouble(event.timestamp),
+                    new Translation2d(mKalmanFilter.getXhat(0), mKalmanFilter.getXhat(1)));
+        }
+    }
+
+    /**
+     * Finds the newest filter event at or before a time.
+     * 
+     * @param timestamp the time
+     * @return the event's index, or -1 if the history starts after it
+     */
+    private int findFilterEvent(double timestamp) {
+        int index = mFilterEvents.size() - 1;
+        while (index >= 0 && mFilterEvents.get(index).timestamp > timestamp) {
+            index--;
+        }
+        return index;
+    }
+
+    private void recordReplayRejected() {
+        mReplayRejectedCount++;
+        Logger.recordOutput("RobotState/Vision Replay Rejected", mReplayRejectedCount);
+    }
+
+    /**
+     * Fuses a vision-odometry error at the time it was measured. The filter is
+     * rolled back to the last event before the measurement, corrected, and every
+     * later event is replayed on top. Measurements older than
+     * {@link #getVisionHorizon()} are rejected to bound the cost.
+     * 
+     * @param timestamp the measurement timestamp
+     * @param errorX    the measured field-to-odom x offset
+     * @param errorY    the measured field-to-odom y offset
+     * @param stdDev    the standard deviation of the measured offset
+     * @return true if the measurement was fused
+     */
+    private boolean fuseAtTimestamp(double timestamp, double errorX, double errorY, double stdDev) {
+        int base = findFilterEvent(timestamp);
+        if (base < 0 || timestamp < getVisionHorizon()) {
+            recordReplayRejected();
+            return false;
+        }
+
+        // Rewind
+        FilterEvent baseEvent = mFilterEvents.get(base);
+        for (int i = 0; i < 2; i++) {
+            mKalmanFilter.setXhat(i, baseEvent.xHat[i]);
+            mKalmanFilter.setP(i, baseEvent.P[i]);
+        }
+        double latestTimestamp = Math.max(mFilterTimestamp, timestamp);
+        mFilterTimestamp = baseEvent.timestamp;
+
+        // Correct, then replay everything after it
+        int replaySteps = mFilterEvents.size() - 1 - base;
+        mFilterEvents.insert(base + 1).set(timestamp, true, errorX, errorY, stdDev);
+        // The oldest event is dropped if the history was full, so count from the end
+        for (int i = mFilterEvents.size() - 1 - replaySteps; i < mFilterEvents.size(); i++) {
+            FilterEvent event = mFilterEvents.get(i);
+            applyFilterEvent(event);
+            snapshotFilterState(event);
+        }
+        mFilterTimestamp = latestTimestamp;
+        trimFilterEvents();
+        Logger.recordOutput("RobotState/Vision Replay Steps", replaySteps);
+        return true;
     }
 
     /**
@@ -140,17 +387,27 @@ public class RobotState {
      * @return the latest pose from odometry
      */
     public Map.Entry<InterpolatingDouble, Pose2d> getLatestPoseFromOdom() {
-        return poseFromOdom.lastEntry();
+        if (mCachedLatestPoseFromOdom != null) {
+            mPoseCacheHits++;
+            return mCachedLatestPoseFromOdom;
+        }
+        mPoseCacheMisses++;
+        mCachedLatestPoseFromOdom = poseFromOdom.lastEntry();
+        return mCachedLatestPoseFromOdom;
     }
 
     /**
-     * Adds a pose observation.
+     * Adds a pose observation. Observations older than the history window are
+     * dropped.
      * 
      * @param timestamp the timestamp
      * @param observation the pose observation
      */
     public void addPoseObservation(double timestamp, Pose2d observation) {
-        poseFromOdom.put(new InterpolatingDouble(timestamp), observation);
+        invalidatePoseCache();
+        poseFromOdom.put(timestamp, observation.getTranslation().x(), observation.getTranslation().y(),
+                observation.getRotation().getRadians());
+        poseFromOdom.removeBefore(poseFromOdom.lastTimestamp() - PoseEstimatorConstants.kPoseHistoryWindowSeconds);
     }
 
     /**
@@ -163,9 +420,18 @@ public class RobotState {
      */
     public void addOdomObservations(double timestamp, Pose2d poseFromOdom, Twist2d measured_velocity,
             Twist2d predicted_velocity) {
-        mKalmanFilter.predict(VecBuilder.fill(0.0, 0.0), .01);
+        double dt = timestamp - mFilterTimestamp;
+        if (dt > 0.0) {
+            mKalmanFilter.predict(dt);
+            mFilterTimestamp = timestamp;
+            FilterEvent event = mFilterEvents.add();
+            event.set(timestamp, false, 0.0, 0.0, 0.0);
+            snapshotFilterState(event);
+            trimFilterEvents();
+        }
 
         addPoseObservation(timestamp, poseFromOdom);
+        invalidatePoseCache();
         MeasuredVelocity = measured_velocity;
         filteredMeasuredVelocity.add(MeasuredVelocity);
         PredictedVelocity = new Twist2d(predicted_velocity.dx, -predicted_velocity.dy, predicted_velocity.dtheta);
@@ -195,7 +461,13 @@ public class RobotState {
      * @return the smoothed velocity
      */
     public Twist2d getSmoothedVelocity() {
-        return filteredMeasuredVelocity.getAverage();
+        if (mCachedSmoothedVelocity != null) {
+            mPoseCacheHits++;
+            return mCachedSmoothedVelocity;
+        }
+        mPoseCacheMisses++;
+        mCachedSmoothedVelocity = filteredMeasuredVelocity.getAverage();
+        return mCachedSmoothedVelocity;
     }
 
 
@@ -205,54 +477,243 @@ public class RobotState {
      * @param visionUpdate the vision update
      */
     public void addVisionUpdate(VisionUpdate visionUpdate) {
-        // Use the same logic for both methods.
-        if (!mLatestVisionUpdate.isEmpty() || initialPoseError.isPresent()) {
+        mSingleVisionUpdate.clear();
+        mSingleVisionUpdate.add(visionUpdate);
+        addVisionUpdates(mSingleVisionUpdate);
+    }
+
+    /**
+     * Adds every vision update from one tick as a single correction. Accepted
+     * measurements are combined by inverse-variance weighting and fused once at
+     * the oldest of their timestamps, instead of one correction per camera.
+     * 
+     * @param visionUpdates the vision updates, typically one per camera
+     */
+    public void addVisionUpdates(List<VisionUpdate> visionUpdates) {
+        if (visionUpdates.isEmpty()) {
+            return;
+        }
+        recordVisionAge(visionUpdates);
+
+        if (mLatestVisionUpdate.isEmpty() && initialPoseError.isEmpty()) {
+            // Seed the filter from the most certain measurement
+            VisionUpdate best = null;
+            for (VisionUpdate visionUpdate : visionUpdates) {
+                if (!isStale(visionUpdate) && (best == null || visionUpdate.getStdDev() < best.getStdDev())) {
+                    best = visionUpdate;
+                }
+            }
+            if (best != null) {
+                initializeFromVision(best);
+            }
+            return;
+        }
+
+        double weightSum = 0.0;
+        double weightedErrorX = 0.0;
+        double weightedErrorY = 0.0;
+        double oldestTimestamp = Double.POSITIVE_INFINITY;
+        VisionUpdate newest = null;
+        VisionUpdate bestInnovationReject = null;
+        int innovationRejects = 0;
+        mAcceptedVisionUpdates.clear();
+
+        for (VisionUpdate visionUpdate : visionUpdates) {
+            if (isStale(visionUpdate)) {
+                continue;
+            }
+
             // Get the Timestamp of the Vision Reading
-            double visionTimestamp = mLatestVisionUpdate.get().getTimestamp();
+            double visionTimestamp = visionUpdate.getTimestamp();
+
+            // Drop frames the filter can't rewind to here, so they can't take the batch down with them
+            int base = findFilterEvent(visionTimestamp);
+            if (base < 0) {
+                recordReplayRejected();
+                continue;
+            }
+            FilterEvent baseEvent = mFilterEvents.get(base);
 
             // Get pose from odometry based on vision timestamp
             Pose2d odomToVehicle = getPoseFromOdom(visionTimestamp);
             Pose2d visionFieldToVehicle = Pose2d.fromTranslation(visionUpdate.getFieldToVision());
 
             // Check if the vision update should be accepted
-            if (!mPoseAcceptor.shouldAcceptVision(visionTimestamp, visionFieldToVehicle, getLatestGlobalKalmanPose(),
+            VisionPoseAcceptor acceptor = mPoseAcceptors.computeIfAbsent(visionUpdate.getCameraName(),
+                    VisionPoseAcceptor::new);
+            if (!acceptor.shouldAcceptVision(visionTimestamp, visionFieldToVehicle, getLatestGlobalKalmanPose(),
                     MeasuredVelocity, false)) {
-                return;
+                continue;
             }
 
-            // Calculate the vision odometry error and apply it to the Kalman filter
+            // The vision odometry error is the field-to-odom offset the filter estimates
             Translation2d visionOdomError = visionFieldToVehicle.getTranslation()
                     .translateBy(odomToVehicle.getTranslation().inverse());
+
+            // Gate on the innovation against the filter as it was when the frame was captured
+            double stdDev = visionUpdate.getStdDev();
+            double dt = visionTimestamp - baseEvent.timestamp;
+            if (!acceptor.shouldAcceptInnovation(
+                    visionOdomError.x() - baseEvent.xHat[0],
+                    visionOdomError.y() - baseEvent.xHat[1],
+                    mKalmanFilter.getInnovationVariance(0, baseEvent.P[0], dt, stdDev),
+                    0.0,
+                    mKalmanFilter.getInnovationVariance(1, baseEvent.P[1], dt, stdDev))) {
+                innovationRejects++;
+                if (bestInnovationReject == null || visionUpdate.getStdDev() < bestInnovationReject.getStdDev()) {
+                    bestInnovationReject = visionUpdate;
+                }
+                continue;
+            }
+            stdDev *= acceptor.getStdDevScale();
             mDisplayVisionPose = visionFieldToVehicle;
 
-            try {
-                // Use the correct Kalman filter depending on the method
-                mKalmanFilter.correct(VecBuilder.fill(0.0, 0.0),
-                        VecBuilder.fill(visionOdomError.x(), visionOdomError.y()));
-                visionPoseComponent.put(new InterpolatingDouble(visionTimestamp),
-                        Pose2d.fromTranslation(new Translation2d(mKalmanFilter.getXhat(0), mKalmanFilter.getXhat(1)))
-                                .getTranslation());
-            } catch (Exception e) {
-                DriverStation.reportError("QR Decomposition failed: ", e.getStackTrace());
+            double weight = 1.0 / (stdDev * stdDev);
+            weightSum += weight;
+            weightedErrorX += weight * visionOdomError.x();
+            weightedErrorY += weight * visionOdomError.y();
+            oldestTimestamp = Math.min(oldestTimestamp, visionTimestamp);
+            if (newest == null || visionTimestamp > newest.getTimestamp()) {
+                newest = visionUpdate;
             }
-        } else {
-            // Handle case when there's no recent vision update or initial pose error
-            double visionTimestamp = visionUpdate.getTimestamp();
-            Pose2d proximatePose = poseFromOdom.getInterpolated(new InterpolatingDouble(visionTimestamp));
+            mAcceptedVisionUpdates.add(visionUpdate);
+        }
 
-            Translation2d fieldToVision = visionUpdate.getFieldToVision();
-            Translation2d odomToVehicleTranslation = proximatePose.getTranslation();
-            Translation2d fieldToOdom = fieldToVision.translateBy(odomToVehicleTranslation.inverse());
+        Logger.recordOutput("RobotState/Vision Batch Size", mAcceptedVisionUpdates.size());
+        if (mAcceptedVisionUpdates.isEmpty()) {
+            reseedIfDiverged(innovationRejects, bestInnovationReject);
+            return;
+        }
+        mConsecutiveInnovationRejects = 0;
 
-            visionPoseComponent.put(new InterpolatingDouble(visionTimestamp), fieldToOdom);
-            initialPoseError = Optional.of(fieldToOdom);
+        try {
+            if (!fuseAtTimestamp(oldestTimestamp, weightedErrorX / weightSum, weightedErrorY / weightSum,
+                    Math.sqrt(1.0 / weightSum))) {
+                return;
+            }
+        } catch (Exception e) {
+            DriverStation.reportError("Vision fusion failed: ", e.getStackTrace());
+            return;
+        }
 
-            mKalmanFilter.setXhat(0, fieldToOdom.x());
-            mKalmanFilter.setXhat(1, fieldToOdom.y());
+        for (VisionUpdate visionUpdate : mAcceptedVisionUpdates) {
+            mFusedFrameCounts.computeIfAbsent(visionUpdate.getCameraName(), k -> new long[1])[0]++;
         }
 
         // Update the latest vision update
-        mLatestVisionUpdate = Optional.ofNullable(visionUpdate);
+        mLatestVisionUpdate = Optional.of(newest);
+    }
+
+    /**
+     * Re-seeds the filter from vision once enough frames in a row have failed the
+     * innovation gate. After odometry slips further than the filter's covariance
+     * allows, every later frame would otherwise be rejected, since P only grows
+     * by Q between them.
+     * 
+     * @param innovationRejects    frames of this batch rejected on their innovation
+     * @param bestInnovationReject the most certain of them, or null if none
+     */
+    private void reseedIfDiverged(int innovationRejects, VisionUpdate bestInnovationReject) {
+        if (bestInnovationReject == null) {
+            return;
+        }
+        mConsecutiveInnovationRejects += innovationRejects;
+        if (mConsecutiveInnovationRejects < PoseEstimatorConstants.kVisionReseedInnovationRejects) {
+            return;
+        }
+        mConsecutiveInnovationRejects = 0;
+        mVisionReseedCount++;
+        Logger.recordOutput("RobotState/Vision Reseed Count", mVisionReseedCount);
+        initializeFromVision(bestInnovationReject);
+    }
+
+    /**
+     * Returns how many times vision re-seeded the filter after repeated
+     * innovation rejects.
+     * 
+     * @return the number of re-seeds
+     */
+    public int getVisionReseedCount() {
+        return mVisionReseedCount;
+    }
+
+    /**
+     * Returns how many of a camera's frames made it into the filter.
+     * 
+     * @param cameraName the camera name
+     * @return the number of fused frames
+     */
+    public long getFusedFrameCount(String cameraName) {
+        long[] count = mFusedFrameCounts.get(cameraName);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Logs the age of the oldest frame in a call against the newest odometry,
+     * once per call so every tick's worst case survives to size the vision
+     * horizon from.
+     */
+    private void recordVisionAge(List<VisionUpdate> visionUpdates) {
+        double newestOdometry = poseFromOdom.lastTimestamp();
+        double maxAge = Double.NEGATIVE_INFINITY;
+        for (VisionUpdate visionUpdate : visionUpdates) {
+            maxAge = Math.max(maxAge, newestOdometry - visionUpdate.getTimestamp());
+        }
+        Logger.recordOutput("RobotState/Vision Max Age", maxAge);
+    }
+
+    /**
+     * Returns the oldest time vision is still fused at. Older frames are stale,
+     * and the filter is never rewound further than this.
+     */
+    private double getVisionHorizon() {
+        return Math.max(poseFromOdom.firstTimestamp(),
+                poseFromOdom.lastTimestamp() - PoseEstimatorConstants.kVisionMaxAgeSeconds);
+    }
+
+    /**
+     * Rejects measurements older than the vision horizon rather than rewind the
+     * filter that far.
+     */
+    private boolean isStale(VisionUpdate visionUpdate) {
+        if (visionUpdate.getTimestamp() < getVisionHorizon()) {
+            mStaleVisionCount++;
+            Logger.recordOutput("RobotState/Stale Vision Count", mStaleVisionCount);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Handles the first vision update, when there's no recent vision update or
+     * initial pose error, or a re-seed after the filter diverged, by taking its
+     * offset as the filter state.
+     */
+    private void initializeFromVision(VisionUpdate visionUpdate) {
+        double visionTimestamp = visionUpdate.getTimestamp();
+        Pose2d proximatePose = poseFromOdom.getInterpolated(new InterpolatingDouble(visionTimestamp));
+
+        Translation2d fieldToVision = visionUpdate.getFieldToVision();
+        Translation2d odomToVehicleTranslation = proximatePose.getTranslation();
+        Translation2d fieldToOdom = fieldToVision.translateBy(odomToVehicleTranslation.inverse());
+
+        // When re-seeding, offsets fused after this frame came from the diverged filter
+        InterpolatingDouble key = new InterpolatingDouble(visionTimestamp);
+        visionPoseComponent.tailMap(key, false).clear();
+        visionPoseComponent.put(key, fieldToOdom);
+        initialPoseError = Optional.of(fieldToOdom);
+        invalidatePoseCache();
+
+        mKalmanFilter.setXhat(0, fieldToOdom.x());
+        mKalmanFilter.setXhat(1, fieldToOdom.y());
+
+        // Older history no longer describes this filter
+        mFilterEvents.clear();
+        FilterEvent anchor = mFilterEvents.add();
+        anchor.set(mFilterTimestamp, false, 0.0, 0.0, 0.0);
+        snapshotFilterState(anchor);
+
+        mLatestVisionUpdate = Optional.of(visionUpdate);
     }
 
     /**
@@ -318,10 +779,18 @@ public class RobotState {
      * @return the global Kalman pose
      */
     public Pose2d getGlobalKalmanPose(double timestamp) {
+        if (mCachedGlobalKalmanPose != null && mCachedGlobalKalmanTimestamp == timestamp) {
+            mPoseCacheHits++;
+            return mCachedGlobalKalmanPose;
+        }
+        mPoseCacheMisses++;
         Pose2d poseFromOdom = getPoseFromOdom(timestamp);
 
         Translation2d kalmanPoseOffset = getGlobalAbsoluteVisionPoseComponent(timestamp);
-        return new Pose2d(kalmanPoseOffset.translateBy(poseFromOdom.getTranslation()), poseFromOdom.getRotation());
+        mCachedGlobalKalmanPose = new Pose2d(kalmanPoseOffset.translateBy(poseFromOdom.getTranslation()),
+                poseFromOdom.getRotation());
+        mCachedGlobalKalmanTimestamp = timestamp;
+        return mCachedGlobalKalmanPose;
 
     }
 
@@ -331,9 +800,16 @@ public class RobotState {
      * @return the latest global Kalman pose
      */
     public Pose2d getLatestGlobalKalmanPose() {
+        if (mCachedLatestGlobalKalmanPose != null) {
+            mPoseCacheHits++;
+            return mCachedLatestGlobalKalmanPose;
+        }
+        mPoseCacheMisses++;
         Pose2d poseFromOdom = getLatestPoseFromOdom().getValue();
-        return new Pose2d(getLatestGlobalVisionPoseComponent().getTranslation().add(poseFromOdom.getTranslation()),
+        mCachedLatestGlobalKalmanPose = new Pose2d(
+                getLatestGlobalVisionPoseComponent().getTranslation().add(poseFromOdom.getTranslation()),
                 poseFromOdom.getRotation());
+        return mCachedLatestGlobalKalmanPose;
     }
 
     /**
@@ -353,6 +829,8 @@ public class RobotState {
         private double ta;
         private Translation2d field_to_vision;
         private int mID;
+        private double mStdDev;
+        private String mCameraName;
 
         /**
          * Constructs a VisionUpdate.
@@ -363,10 +841,27 @@ public class RobotState {
          * @param field_to_vision the field-to-vision translation
          */
         public VisionUpdate(int id, double timestamp, double ta, Translation2d field_to_vision) {
+            this(id, timestamp, ta, field_to_vision, Constants.kLocalMeasurementStdDevs.get(0, 0), "Vision");
+        }
+
+        /**
+         * Constructs a VisionUpdate with its own measurement standard deviation.
+         * 
+         * @param id the ID of the vision update
+         * @param timestamp the timestamp of the vision update
+         * @param ta the target area
+         * @param field_to_vision the field-to-vision translation
+         * @param stdDev the standard deviation of the translation, in meters
+         * @param cameraName the name of the camera that produced it
+         */
+        public VisionUpdate(int id, double timestamp, double ta, Translation2d field_to_vision, double stdDev,
+                String cameraName) {
             this.mID = id;
             this.ta = ta;
             this.timestamp = timestamp;
             this.field_to_vision = field_to_vision;
+            this.mStdDev = stdDev;
+            this.mCameraName = cameraName;
         }
 
         /**
@@ -404,5 +899,23 @@ public class RobotState {
         public Integer getID() {
             return mID;
         }
+
+        /**
+         * Returns the standard deviation of the translation.
+         * 
+         * @return the standard deviation in meters
+         */
+        public double getStdDev() {
+            return mStdDev;
+        }
+
+        /**
+         * Returns the name of the camera that produced the update.
+         * 
+         * @return the camera name
+         */
+        public String getCameraName() {
+            return mCameraName;
+        }
     }
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package com.team5817.frc2025;
 import com.team5817.frc2025.loops.ILooper;
 import com.team5817.frc2025.loops.Loop;
 import com.team5817.frc2025.loops.Looper;
+import com.team254.lib.drivers.MotorChecker.MotorResult;
+import com.team5817.lib.diagnostic.SelfTest;
+import com.team5817.lib.diagnostic.SelfTest.SubsystemResult;
 import com.team5817.lib.drivers.Subsystem;
 
 import edu.wpi.first.wpilibj.Timer;
@@ -11,6 +14,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.littletonrobotics.junction.Logger;
+
 /**
  * Used to reset, start, stop, and update all subsystems at once.
  */
@@ -18,6 +23,9 @@ public class SubsystemManager implements ILooper {
     public static SubsystemManager mInstance = null;
 
     private List<Subsystem> mAllSubsystems;
+    private List<Subsystem> mIndependentSubsystems = new ArrayList<>();
+    private volatile boolean mSelfTestRunning = false;
+    private volatile List<SubsystemResult> mPendingSelfTestReport = null;
     private List<Loop> mLoops = new ArrayList<>();
     private double read_dt = 0.0;
     private double on_loop_dt = 0.0;
@@ -50,18 +58,77 @@ public class SubsystemManager implements ILooper {
     }
 
     /**
-     * Checks the status of all subsystems.
+     * Checks the status of all subsystems. Independent subsystems are checked at
+     * the same time, then the rest one at a time. Periodic writes are held while
+     * the check runs.
      *
      * @return true if all subsystems are functioning correctly, false otherwise.
      */
     public boolean checkSubsystems() {
-        boolean ret_val = true;
+        List<Subsystem> dependent = new ArrayList<>(mAllSubsystems);
+        dependent.removeAll(mIndependentSubsystems);
+
+        mSelfTestRunning = true;
+        List<SubsystemResult> results;
+        try {
+            results = new SelfTest(mIndependentSubsystems, dependent).run();
+        } finally {
+            mSelfTestRunning = false;
+        }
+        mPendingSelfTestReport = results;
+        return SelfTest.allPassed(results);
+    }
 
-        for (Subsystem s : mAllSubsystems) {
-            ret_val &= s.checkSystem();
+    /**
+     * Runs {@link #checkSubsystems()} on a background thread so the loop keeps
+     * logging. Does nothing if a check is already running.
+     */
+    public void startSelfTest() {
+        if (mSelfTestRunning) {
+            return;
         }
+        mSelfTestRunning = true;
+        Thread thread = new Thread(this::checkSubsystems, "Self Test");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-        return ret_val;
+    /**
+     * @return true while a self-test is running.
+     */
+    public boolean isSelfTestRunning() {
+        return mSelfTestRunning;
+    }
+
+    /**
+     * Sets the subsystems that are mechanically independent and can be checked
+     * at the same time.
+     *
+     * @param independentSubsystems the independent subsystems.
+     */
+    public void setIndependentSubsystems(Subsystem... independentSubsystems) {
+        mIndependentSubsystems = Arrays.asList(independentSubsystems);
+    }
+
+    private void logSelfTestReport() {
+        List<SubsystemResult> results = mPendingSelfTestReport;
+        if (results == null) {
+            return;
+        }
+        mPendingSelfTestReport = null;
+        boolean passed = SelfTest.allPassed(results);
+        for (SubsystemResult result : results) {
+            Logger.recordOutput("SelfTest/" + result.mName + "/Skipped", result.mSkipped);
+            Logger.recordOutput("SelfTest/" + result.mName + "/Passed", result.mPassed);
+            Logger.recordOutput("SelfTest/" + result.mName + "/Duration", result.mDurationSeconds);
+            for (MotorResult motor : result.mMotors) {
+                Logger.recordOutput("SelfTest/" + result.mName + "/" + motor.mName + "/Passed", motor.mPassed);
+                Logger.recordOutput("SelfTest/" + result.mName + "/" + motor.mName + "/Current", motor.mCurrent);
+                Logger.recordOutput("SelfTest/" + result.mName + "/" + motor.mName + "/RPM", motor.mRPM);
+            }
+        }
+        Logger.recordOutput("SelfTest/Passed", passed);
+        SmartDashboard.putBoolean("Self Test Passed", passed);
     }
 
     /**
@@ -108,10 +175,13 @@ public class SubsystemManager implements ILooper {
             }
             on_loop_dt = Timer.getTimestamp() - (timestamp + read_dt);
 
-            // Write
-            for (int i = 0; i < mAllSubsystems.size(); i++) {
-                mAllSubsystems.get(i).writePeriodicOutputs();
+            // Write, unless the self-test owns the motors
+            if (!mSelfTestRunning) {
+                for (int i = 0; i < mAllSubsystems.size(); i++) {
+                    mAllSubsystems.get(i).writePeriodicOutputs();
+                }
             }
+            logSelfTestReport();
             write_dt = Timer.getTimestamp() - (timestamp + on_loop_dt);
             SubsystemManager.getInstance().outputTelemetry();
 
@@ -0,0 +1,190 @@
+package com.team5817.frc2025.subsystems;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.team5817.frc2025.Constants;
+import com.team5817.frc2025.Constants.SwerveConstants;
+import com.team5817.lib.swerve.SwerveModule;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Seeds each swerve module from its CANcoder in the background. Every module is
+ * reset as soon as its own encoder has produced fresh, valid absolute samples,
+ * so startup never blocks on the CAN bus and a module is never seeded from
+ * stale data.
+ * <p>
+ * A module still waiting after
+ * {@link SwerveConstants#kCancoderBootAllowanceSeconds} is seeded from whatever
+ * absolute reading is available and flagged as faulted, so it still drives.
+ * The thread keeps watching faulted modules and reseeds each once its encoder
+ * does produce fresh samples.
+ */
+public class CancoderBootstrap {
+	private static final double kPollPeriodSeconds = 0.01;
+	// Faulted modules are only waiting on a late encoder, no need to poll fast
+	private static final double kFaultedPollPeriodSeconds = 0.1;
+
+	private final SwerveModule[] mModules;
+	private final Cancoders mCancoders;
+	private final AtomicBoolean[] mReady;
+	private final AtomicBoolean[] mFaulted;
+
+	private volatile boolean mTimedOut = false;
+	private BootstrapThread mThread;
+
+	/**
+	 * Constructs a bootstrap for the given modules.
+	 *
+	 * @param modules   The swerve modules, in the same order as the CANcoders (FL, FR, BL, BR).
+	 * @param cancoders The CANcoders container.
+	 */
+	public CancoderBootstrap(SwerveModule[] modules, Cancoders cancoders) {
+		mModules = modules;
+		mCancoders = cancoders;
+		mReady = new AtomicBoolean[modules.length];
+		mFaulted = new AtomicBoolean[modules.length];
+		for (int i = 0; i < mReady.length; i++) {
+			mReady[i] = new AtomicBoolean(false);
+			mFaulted[i] = new AtomicBoolean(false);
+		}
+	}
+
+	/**
+	 * Starts the bootstrap thread. In simulation and replay there are no
+	 * encoders to wait on, so every module is marked ready immediately. Does
+	 * nothing if already started.
+	 */
+	public void start() {
+		if (mThread != null) {
+			return;
+		}
+		if (Constants.mode != Constants.Mode.REAL) {
+			for (AtomicBoolean ready : mReady) {
+				ready.set(true);
+			}
+			return;
+		}
+		mThread = new BootstrapThread();
+		mThread.setDaemon(true);
+		mThread.start();
+	}
+
+	private class BootstrapThread extends Thread {
+		BootstrapThread() {
+			super("Cancoder Bootstrap");
+		}
+
+		@Override
+		public void run() {
+			double startTime = Timer.getFPGATimestamp();
+			while (!allReady()) {
+				if (Timer.getFPGATimestamp() - startTime > SwerveConstants.kCancoderBootAllowanceSeconds) {
+					mTimedOut = true;
+					for (int i = 0; i < mReady.length; i++) {
+						if (!mReady[i].get()) {
+							seedWithFault(i);
+						}
+					}
+					break;
+				}
+				for (int i = 0; i < mModules.length; i++) {
+					if (mReady[i].get() || !mCancoders.hasBeenInitialized(i)) {
+						continue;
+					}
+					try {
+						mModules[i].seedFromAbsolute();
+						mReady[i].set(true);
+						System.out.println("Module " + i + " seeded from cancoder after "
+								+ (Timer.getFPGATimestamp() - startTime) + " seconds");
+					} catch (Exception e) {
+						DriverStation.reportError("Module " + i + " cancoder seed failed: " + e, e.getStackTrace());
+					}
+				}
+				Timer.delay(kPollPeriodSeconds);
+			}
+
+			// Reseed faulted modules properly once their encoder catches up
+			while (anyFaulted()) {
+				for (int i = 0; i < mModules.length; i++) {
+					if (!mFaulted[i].get() || !mCancoders.hasBeenInitialized(i)) {
+						continue;
+					}
+					try {
+						mModules[i].seedFromAbsolute();
+						mFaulted[i].set(false);
+						DriverStation.reportWarning("Module " + i + " reseeded from a late cancoder after "
+								+ (Timer.getFPGATimestamp() - startTime) + " seconds", false);
+					} catch (Exception e) {
+						DriverStation.reportError("Module " + i + " cancoder reseed failed: " + e,
+								e.getStackTrace());
+					}
+				}
+				Timer.delay(kFaultedPollPeriodSeconds);
+			}
+		}
+
+		/**
+		 * Seeds a module that never got fresh samples from whatever absolute
+		 * reading is available, and marks it ready but faulted.
+		 */
+		private void seedWithFault(int i) {
+			try {
+				mModules[i].resetToAbsolute();
+			} catch (Exception e) {
+				DriverStation.reportError("Module " + i + " fallback cancoder seed failed: " + e,
+						e.getStackTrace());
+			}
+			mFaulted[i].set(true);
+			mReady[i].set(true);
+			DriverStation.reportError("Cancoder bootstrap timed out on module " + i
+					+ ", seeded from a possibly stale reading", false);
+		}
+	}
+
+	/**
+	 * @param index The module index.
+	 * @return Whether the module has been seeded from a fresh absolute sample.
+	 */
+	public boolean isReady(int index) {
+		return mReady[index].get();
+	}
+
+	/**
+	 * @param index The module index.
+	 * @return Whether the module was seeded without a fresh absolute sample and
+	 *         hasn't been reseeded since.
+	 */
+	public boolean isFaulted(int index) {
+		return mFaulted[index].get();
+	}
+
+	private boolean anyFaulted() {
+		for (AtomicBoolean faulted : mFaulted) {
+			if (faulted.get()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return Whether every module has been seeded.
+	 */
+	public boolean allReady() {
+		for (AtomicBoolean ready : mReady) {
+			if (!ready.get()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return Whether the allowance ran out before every module was seeded.
+	 */
+	public boolean hasTimedOut() {
+		return mTimedOut;
+	}
+}
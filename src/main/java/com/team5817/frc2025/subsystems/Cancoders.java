@@ -23,6 +23,9 @@ public class Cancoders {
 	private final CanTsObserver mBackLeftObserver;
 	private final CanTsObserver mBackRightObserver;
 
+	// Indexed in swerve module order: FL, FR, BL, BR
+	private final CanTsObserver[] mObservers;
+
 	private static final double kBootUpErrorAllowanceTime = 10.0;
 
 	/**
@@ -45,10 +48,14 @@ public class Cancoders {
 
 		/**
 		 * Checks if the CANcoder has received the required number of valid timestamp updates.
+		 * Only samples that arrive with an OK status count towards the total.
 		 *
 		 * @return true if the required number of valid updates have been received, false otherwise
 		 */
 		public boolean hasUpdate() {
+			if (validUpdates > kRequiredValidTimestamps) {
+				return true;
+			}
 			// Need to call this to update ts
 			StatusSignal<Angle> absolutePositionSignal = cancoder.getAbsolutePosition();
 
@@ -56,7 +63,7 @@ public class Cancoders {
 			if (lastTs.isEmpty()) {
 				lastTs = Optional.of(ts);
 			}
-			if (ts > lastTs.get()) {
+			if (ts > lastTs.get() && absolutePositionSignal.getStatus().isOK()) {
 				validUpdates++;
 				lastTs = Optional.of(ts);
 			}
@@ -132,6 +139,9 @@ public class Cancoders {
 
 		mBackRight = build(Ports.BR_CANCODER);
 		mBackRightObserver = new CanTsObserver(mBackRight);
+
+		mObservers = new CanTsObserver[] {
+				mFrontLeftObserver, mFrontRightObserver, mBackLeftObserver, mBackRightObserver };
 	}
 
 	/**
@@ -146,6 +156,17 @@ public class Cancoders {
 				&& mBackRightObserver.hasUpdate();
 	}
 
+	/**
+	 * Checks if a single CANcoder has received enough fresh, valid absolute
+	 * samples to seed its module from.
+	 *
+	 * @param index the module index (0 FL, 1 FR, 2 BL, 3 BR)
+	 * @return true if the CANcoder has been initialized, false otherwise
+	 */
+	public boolean hasBeenInitialized(int index) {
+		return mObservers[index].hasUpdate();
+	}
+
 	/**
 	 * Returns the front left CANcoder.
 	 *
@@ -3,6 +3,7 @@ package com.team5817.frc2025.subsystems.Drive;
 import com.team5817.frc2025.Constants;
 import com.team5817.frc2025.Robot;
 import com.team5817.frc2025.RobotState;
+import com.team5817.frc2025.Constants.SelfTestConstants;
 import com.team5817.frc2025.Constants.SwerveConstants;
 import com.team5817.frc2025.Constants.SwerveConstants.Mod0;
 import com.team5817.frc2025.Constants.SwerveConstants.Mod1;
@@ -12,6 +13,7 @@ import com.team5817.frc2025.autos.TrajectoryLibrary.l;
 import com.team5817.frc2025.field.AlignmentPoint.AlignmentType;
 import com.team5817.frc2025.loops.ILooper;
 import com.team5817.frc2025.loops.Loop;
+import com.team5817.frc2025.subsystems.CancoderBootstrap;
 import com.team5817.frc2025.subsystems.Cancoders;
 import com.team5817.frc2025.subsystems.WheelTracker;
 import com.team5817.lib.Util;
@@ -24,7 +26,10 @@ import com.team5817.lib.swerve.DriveMotionPlanner;
 import com.team5817.lib.swerve.SwerveHeadingController;
 import com.team5817.lib.swerve.SwerveModule;
 import com.team5817.lib.swerve.SwerveModulePosition;
+import com.ctre.phoenix6.hardware.TalonFX;
 import com.pathplanner.lib.util.PPLibTelemetry;
+import com.team254.lib.drivers.TalonFXChecker;
+import com.team254.lib.drivers.MotorChecker.MotorConfig;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Rotation2d;
 import com.team254.lib.geometry.Translation2d;
@@ -67,6 +72,7 @@ public class Drive extends Subsystem {
 	}
 
 	private WheelTracker mWheelTracker;
+	private CancoderBootstrap mCancoderBootstrap;
 	private Pigeon mPigeon;
 	public SwerveModule[] mModules;
 
@@ -138,6 +144,9 @@ public class Drive extends Subsystem {
 						3, Mod3.SwerveModuleConstants(), Cancoders.getInstance().getBackRight())
 		};
 
+		mCancoderBootstrap = new CancoderBootstrap(mModules, Cancoders.getInstance());
+		mCancoderBootstrap.start();
+
 		mMotionPlanner = new DriveMotionPlanner();
 		mHeadingController = new SwerveHeadingController();
 
@@ -450,13 +459,14 @@ public class Drive extends Subsystem {
 
 				updateSetpoint();
 
+				// Drain every odometry sample since the last tick, then record the latest
+				mWheelTracker.readPeriodicInputs();
 				RobotState.getInstance()
 						.addOdomObservations(
-								timestamp,
+								mWheelTracker.getTimestamp(),
 								mWheelTracker.getRobotPose(),
 								mPeriodicIO.measured_velocity,
 								mPeriodicIO.predicted_velocity);
-				mWheelTracker.readPeriodicInputs();
 
 			}
 		});
@@ -464,6 +474,7 @@ public class Drive extends Subsystem {
 
 	@Override
 	public void readPeriodicInputs() {
+		mPigeon.update(Timer.getFPGATimestamp());
 		SwerveModuleState[] module_states = new SwerveModuleState[4];
 		if (Constants.mode == Constants.Mode.SIM) {
 			for (int i = 0; i < mModules.length; i++) {
@@ -541,11 +552,14 @@ public class Drive extends Subsystem {
 	}
 
 	/**
-	 * Resets the modules to their absolute positions.
+	 * Resets the modules to their absolute positions. Modules that the cancoder
+	 * bootstrap has not seeded yet are left to it.
 	 */
 	public void resetModulesToAbsolute() {
-		for (SwerveModule module : mModules) {
-			module.resetToAbsolute();
+		for (int i = 0; i < mModules.length; i++) {
+			if (mCancoderBootstrap.isReady(i)) {
+				mModules[i].resetToAbsolute();
+			}
 		}
 	}
 
@@ -594,8 +608,11 @@ public class Drive extends Subsystem {
 			driveSimulation.setRobotSpeeds(ChassisSpeeds
 					.fromFieldRelativeSpeeds(mPeriodicIO.setpoint.mChassisSpeeds, mPeriodicIO.heading.inverse()).wpi());
 		} else {
-			for (SwerveModule swerveModule : mModules) {
-				swerveModule.writePeriodicOutputs();
+			for (int i = 0; i < mModules.length; i++) {
+				// Hold unseeded modules; their steering position is not known yet
+				if (mCancoderBootstrap.isReady(i)) {
+					mModules[i].writePeriodicOutputs();
+				}
 			}
 		}
 
@@ -790,8 +807,15 @@ public class Drive extends Subsystem {
 		Logger.recordOutput("RobotState/Filtered Pose", new Pose3d(RobotState.getInstance().getLatestGlobalKalmanPose().wpi().getX(),RobotState.getInstance().getLatestGlobalKalmanPose().wpi().getY(),0.025, new Rotation3d(0,0,RobotState.getInstance().getLatestGlobalKalmanPose().wpi().getRotation().getRadians())));
 		Logger.recordOutput("RobotState/Odom Pose", new Pose3d(RobotState.getInstance().getLatestGlobalKalmanPose().wpi().getX(),RobotState.getInstance().getLatestGlobalKalmanPose().wpi().getY(),0.025, new Rotation3d(0,0,RobotState.getInstance().getLatestPoseFromOdom().getValue().wpi().getRotation().getRadians())));
 		// Logger.recordOutput("RobotState/Specialized Pose", RobotState.getInstance().getLatestSpecializedKalmanPose().wpi());
+		Logger.recordOutput("RobotState/Pose Cache Hits", RobotState.getInstance().getPoseCacheHits());
+		Logger.recordOutput("RobotState/Pose Cache Misses", RobotState.getInstance().getPoseCacheMisses());
 
 		Logger.recordOutput("Drive/Control State Changed", mControlStateHasChanged);
+		for (int i = 0; i < mModules.length; i++) {
+			Logger.recordOutput("Drive/Module" + i + "/Cancoder Ready", mCancoderBootstrap.isReady(i));
+			Logger.recordOutput("Drive/Module" + i + "/Cancoder Fault", mCancoderBootstrap.isFaulted(i));
+		}
+		Logger.recordOutput("Drive/Cancoder Bootstrap Timed Out", mCancoderBootstrap.hasTimedOut());
 
 		// elastic
 		mField2d.setRobotPose(RobotState.getInstance().getLatestGlobalKalmanPose().wpi());
@@ -817,9 +841,25 @@ public class Drive extends Subsystem {
 		mPeriodicIO.des_chassis_speeds = new ChassisSpeeds();
 	}
 
+	@Override
+	public boolean hasSystemCheck() {
+		return true;
+	}
+
 	@Override
 	public boolean checkSystem() {
-		return false;
+		ArrayList<MotorConfig<TalonFX>> driveMotors = new ArrayList<>();
+		ArrayList<MotorConfig<TalonFX>> angleMotors = new ArrayList<>();
+		for (SwerveModule module : mModules) {
+			driveMotors.add(new MotorConfig<>("Module" + module.moduleNumber() + " Drive", module.getDriveMotor()));
+			angleMotors.add(new MotorConfig<>("Module" + module.moduleNumber() + " Angle", module.getAngleMotor()));
+		}
+		mCheckResults.clear();
+		boolean drivePassed = TalonFXChecker.checkMotors(this, driveMotors,
+				SelfTestConstants.ParallelCheckerConfig(), mCheckResults);
+		boolean anglePassed = TalonFXChecker.checkMotors(this, angleMotors,
+				SelfTestConstants.ParallelCheckerConfig(), mCheckResults);
+		return drivePassed && anglePassed;
 	}
 	//
 
@@ -11,19 +11,27 @@ import org.littletonrobotics.junction.Logger;
 
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.team254.lib.drivers.TalonFXChecker;
 import com.team254.lib.drivers.TalonUtil;
-import com.team254.lib.util.TimeDelayedBoolean;
+import com.team254.lib.drivers.MotorChecker.MotorConfig;
+import com.team5817.frc2025.Constants;
 import com.team5817.frc2025.Constants.EndEffectorRollerConstants;
+import com.team5817.frc2025.Constants.SelfTestConstants;
 import com.team5817.frc2025.Ports;
 import com.team5817.frc2025.loops.ILooper;
 import com.team5817.frc2025.loops.Loop;
+import com.team5817.lib.drivers.RollerPieceDetector;
 import com.team5817.lib.drivers.Subsystem;
+import com.team5817.lib.requests.Prerequisite;
 import com.team5817.lib.requests.Request;
+import com.team5817.lib.requests.WaitForPrereqRequest;
 
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.Timer;
 
+import java.util.ArrayList;
+
 /**
  * The EndEffectorRollers subsystem controls the rollers of the end effector.
  */
@@ -60,8 +68,11 @@ public class EndEffectorRollers extends Subsystem {
 	}
 
 	private final TalonFX mRoller;
+	private final RollerPieceDetector mPieceDetector;
 
 	private State mState = State.IDLE;
+	// When the rollers started running outward in simulation, or NaN
+	private double mSimOuttakeStartTimestamp = Double.NaN;
 	private EndEffectorRollerInputsAutoLogged mEndEffectorRollerInputs = new EndEffectorRollerInputsAutoLogged();
 
 	/**
@@ -70,6 +81,11 @@ public class EndEffectorRollers extends Subsystem {
 	private EndEffectorRollers() {
 		mRoller = new TalonFX(Ports.ENDEFFECTOR_ROLLER.getDeviceNumber(), Ports.ENDEFFECTOR_ROLLER.getBus());
 		TalonUtil.applyAndCheckConfiguration(mRoller, EndEffectorRollerConstants.RollerFXConfig());
+
+		mPieceDetector = new RollerPieceDetector(mRoller, EndEffectorRollerConstants.kPieceDetectorConstants);
+		if (Constants.mode == Constants.Mode.REAL) {
+			mPieceDetector.start();
+		}
 	}
 
 	/**
@@ -108,10 +124,64 @@ public class EndEffectorRollers extends Subsystem {
 		mState = state;
 	}
 
-	TimeDelayedBoolean mHasPieceManager = new TimeDelayedBoolean();
-	boolean hasPiece = false;
-	public boolean hasPiece(){
-		return hasPiece;
+	/**
+	 * Whether the high-rate detector currently sees a piece in the rollers.
+	 *
+	 * @return True if a piece is held.
+	 */
+	public boolean hasPiece() {
+		return mEndEffectorRollerInputs.has_piece;
+	}
+
+	/**
+	 * Tells the detector a piece is in the rollers without it having seen one
+	 * go in. Call at auto init for the preloaded coral.
+	 *
+	 * @param hasPiece Whether a piece is held.
+	 */
+	public void setHasPiece(boolean hasPiece) {
+		mPieceDetector.setHasPiece(hasPiece, Timer.getFPGATimestamp());
+	}
+
+	/**
+	 * Prerequisite that is met once the detector flags a piece.
+	 *
+	 * @return Prerequisite for a held piece.
+	 */
+	public Prerequisite pieceAcquiredPrerequisite() {
+		return () -> hasPiece();
+	}
+
+	/**
+	 * Prerequisite that is met once the detector no longer sees a piece.
+	 *
+	 * @return Prerequisite for an empty end effector.
+	 */
+	public Prerequisite pieceReleasedPrerequisite() {
+		return () -> !hasPiece();
+	}
+
+	/**
+	 * Stands in for the detector in simulation, where the rollers have no
+	 * physics. Intaking acquires a piece at once, and running the rollers outward
+	 * releases it after {@link EndEffectorRollerConstants#kSimReleaseSeconds}.
+	 *
+	 * @param timestamp The time of this loop.
+	 */
+	private void simulatePieceDetector(double timestamp) {
+		if (mState == State.CORAL_INTAKE || mState == State.ALGAE_INTAKE) {
+			mPieceDetector.setHasPiece(true, timestamp);
+		}
+		if (roller_demand >= 0.0) {
+			mSimOuttakeStartTimestamp = Double.NaN;
+			return;
+		}
+		if (Double.isNaN(mSimOuttakeStartTimestamp)) {
+			mSimOuttakeStartTimestamp = timestamp;
+		}
+		if (timestamp - mSimOuttakeStartTimestamp >= EndEffectorRollerConstants.kSimReleaseSeconds) {
+			mPieceDetector.setHasPiece(false, timestamp);
+		}
 	}
 
 	/**
@@ -153,18 +223,46 @@ public class EndEffectorRollers extends Subsystem {
 		};
 	}
 
+	/**
+	 * Creates a new request that finishes once a piece is detected in the
+	 * rollers, or after {@link EndEffectorRollerConstants#kPieceAcquireTimeoutSeconds}
+	 * if the detector misses it.
+	 *
+	 * @return New request that waits for piece acquisition.
+	 */
+	public Request waitForPieceRequest() {
+		return new WaitForPrereqRequest(pieceAcquiredPrerequisite(),
+				EndEffectorRollerConstants.kPieceAcquireTimeoutSeconds).addName("Piece Acquired Wait");
+	}
+
+	/**
+	 * Creates a new request that finishes once the piece has left the rollers,
+	 * or after {@link EndEffectorRollerConstants#kPieceReleaseTimeoutSeconds} if
+	 * the detector misses it.
+	 *
+	 * @return New request that waits for piece release.
+	 */
+	public Request waitForReleaseRequest() {
+		return new WaitForPrereqRequest(pieceReleasedPrerequisite(),
+				EndEffectorRollerConstants.kPieceReleaseTimeoutSeconds).addName("Piece Released Wait");
+	}
+
 	@AutoLog
 	public static class EndEffectorRollerInputs implements Sendable {
 		// INPUTS
 		public double roller_output_voltage;
 		public double roller_stator_current;
 		public double roller_velocity;
+		public boolean has_piece;
+		public double piece_acquired_timestamp;
+		public double piece_released_timestamp;
 
 		@Override
 		public void initSendable(SendableBuilder builder) {
 			builder.addDoubleProperty("OutputVoltage", () -> roller_output_voltage, null);
 			builder.addDoubleProperty("StatorCurrent", () -> roller_stator_current, null);
 			builder.addDoubleProperty("VelocityRpS", () -> roller_velocity, null);
+			builder.addBooleanProperty("HasPiece", () -> has_piece, null);
 		}
 	}
 
@@ -177,7 +275,12 @@ public class EndEffectorRollers extends Subsystem {
 		mEndEffectorRollerInputs.roller_stator_current = mRoller.getStatorCurrent().getValue().in(Amps);
 		mEndEffectorRollerInputs.roller_velocity = mRoller.getVelocity().getValue().in(RotationsPerSecond);
 
-		hasPiece = mHasPieceManager.update(mEndEffectorRollerInputs.roller_stator_current>60, 0.1);
+		if (Constants.mode == Constants.Mode.SIM) {
+			simulatePieceDetector(Timer.getFPGATimestamp());
+		}
+		mEndEffectorRollerInputs.has_piece = mPieceDetector.hasPiece();
+		mEndEffectorRollerInputs.piece_acquired_timestamp = mPieceDetector.getLastAcquiredTimestamp();
+		mEndEffectorRollerInputs.piece_released_timestamp = mPieceDetector.getLastReleasedTimestamp();
 
 		Logger.processInputs("EndEffectorRollers", mEndEffectorRollerInputs);
 	}
@@ -192,27 +295,31 @@ public class EndEffectorRollers extends Subsystem {
 		roller_demand = 0.0;
 	}
 
+	@Override
+	public boolean hasSystemCheck() {
+		return true;
+	}
+
 	@Override
 	public boolean checkSystem() {
-		return false;
+		ArrayList<MotorConfig<TalonFX>> motors = new ArrayList<>();
+		motors.add(new MotorConfig<>("EndEffectorRoller", mRoller));
+		mCheckResults.clear();
+		return TalonFXChecker.checkMotors(this, motors, SelfTestConstants.ParallelCheckerConfig(), mCheckResults);
 	}
 
 	@Override
 	public void outputTelemetry() {
-		Logger.recordOutput("EndEffectorRollers/hasPiece", hasPiece);
+		Logger.recordOutput("EndEffectorRollers/hasPiece", hasPiece());
 	}
 
-    public Request hasAlgaeRequest() {
-		return new Request() {
-
-			@Override
-			public void act() {
-			}
-			@Override
-			public boolean isFinished() {
-				return true;//TODO: add
-			}
-			
-		};
+	/**
+	 * Creates a new request that finishes once algae is detected in the rollers,
+	 * or after the acquire timeout.
+	 *
+	 * @return New request that waits for algae acquisition.
+	 */
+	public Request hasAlgaeRequest() {
+		return waitForPieceRequest().addName("Algae Acquired Wait");
 	}
 }
\ No newline at end of file
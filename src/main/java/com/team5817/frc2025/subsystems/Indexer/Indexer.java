@@ -10,9 +10,13 @@ import org.littletonrobotics.junction.Logger;
 
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.team254.lib.drivers.TalonFXChecker;
 import com.team254.lib.drivers.TalonUtil;
+import com.team254.lib.drivers.MotorChecker.CheckerConfig;
+import com.team254.lib.drivers.MotorChecker.MotorConfig;
 import com.team5817.frc2025.Ports;
 import com.team5817.frc2025.Constants.IntakeRollerConstants;
+import com.team5817.frc2025.Constants.SelfTestConstants;
 import com.team5817.frc2025.loops.ILooper;
 import com.team5817.frc2025.loops.Loop;
 import com.team5817.lib.drivers.Subsystem;
@@ -22,6 +26,8 @@ import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
+import java.util.ArrayList;
+
 public class Indexer extends Subsystem {
 	private static Indexer mInstance;
 
@@ -164,9 +170,22 @@ public class Indexer extends Subsystem {
 		mState = State.IDLE;
 	}
 
+	@Override
+	public boolean hasSystemCheck() {
+		return true;
+	}
+
 	@Override
 	public boolean checkSystem() {
-		return false;
+		ArrayList<MotorConfig<TalonFX>> motors = new ArrayList<>();
+		motors.add(new MotorConfig<>("SideRollers", SideRollers));
+		motors.add(new MotorConfig<>("BottomRollers", BottomRollers));
+		CheckerConfig config = SelfTestConstants.ParallelCheckerConfig();
+		// Side and bottom rollers load differently, so don't compare them
+		config.mCurrentEpsilon = Double.POSITIVE_INFINITY;
+		config.mRPMEpsilon = Double.POSITIVE_INFINITY;
+		mCheckResults.clear();
+		return TalonFXChecker.checkMotors(this, motors, config, mCheckResults);
 	}
 
 	@Override
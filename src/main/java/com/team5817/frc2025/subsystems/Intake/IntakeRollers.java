@@ -9,9 +9,12 @@ import org.littletonrobotics.junction.Logger;
 
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.team254.lib.drivers.TalonFXChecker;
 import com.team254.lib.drivers.TalonUtil;
+import com.team254.lib.drivers.MotorChecker.MotorConfig;
 import com.team5817.frc2025.Ports;
 import com.team5817.frc2025.Constants.IntakeRollerConstants;
+import com.team5817.frc2025.Constants.SelfTestConstants;
 import com.team5817.frc2025.loops.ILooper;
 import com.team5817.frc2025.loops.Loop;
 import com.team5817.lib.drivers.Subsystem;
@@ -21,6 +24,8 @@ import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
+import java.util.ArrayList;
+
 public class IntakeRollers extends Subsystem {
 	private static IntakeRollers mInstance;
 
@@ -165,9 +170,17 @@ public class IntakeRollers extends Subsystem {
 		mIntakeRollerOutputs.roller_demand = 0.0;
 	}
 
+	@Override
+	public boolean hasSystemCheck() {
+		return true;
+	}
+
 	@Override
 	public boolean checkSystem() {
-		return false;
+		ArrayList<MotorConfig<TalonFX>> motors = new ArrayList<>();
+		motors.add(new MotorConfig<>("IntakeRoller", mRoller));
+		mCheckResults.clear();
+		return TalonFXChecker.checkMotors(this, motors, SelfTestConstants.ParallelCheckerConfig(), mCheckResults);
 	}
 
 	@Override
@@ -0,0 +1,247 @@
+package com.team5817.frc2025.subsystems;
+
+import com.team5817.frc2025.Constants;
+
+/**
+ * Integrates swerve wheel odometry into a robot pose and velocity. Each wheel
+ * is tracked on its own, then the wheels that agree are averaged so a slipping
+ * wheel is left out.
+ * <p>
+ * The integration depends only on the values passed to {@link #update}, so
+ * replay can run the same code over logged samples and land on the same pose
+ * bit for bit. Works on primitives and does not allocate.
+ */
+public class OdometryIntegrator {
+	private final int mNumModules;
+
+	// Per-wheel odometry state, indexed by module
+	private final double[] mPreviousEncDistance;
+	private final double[] mPositionX;
+	private final double[] mPositionY;
+	private final double[] mStartingX;
+	private final double[] mStartingY;
+	private final double[] mEstimatedX;
+	private final double[] mEstimatedY;
+	private final double[] mDeviations;
+	private final double[] mModuleDeltas;
+
+	private double mPoseX = 0.0;
+	private double mPoseY = 0.0;
+	private double mPoseHeading = 0.0;
+	private double mVelocityX = 0.0;
+	private double mVelocityY = 0.0;
+
+	private double last_velocity_sample_x = 0.0;
+	private double last_velocity_sample_y = 0.0;
+	private double last_velocity_sample_heading = 0.0;
+	private double last_sample_timestamp = 0.0;
+
+	/**
+	 * Constructs an integrator at the origin.
+	 *
+	 * @param numModules Number of swerve modules.
+	 */
+	public OdometryIntegrator(int numModules) {
+		mNumModules = numModules;
+		mPreviousEncDistance = new double[numModules];
+		mPositionX = new double[numModules];
+		mPositionY = new double[numModules];
+		mStartingX = new double[numModules];
+		mStartingY = new double[numModules];
+		mEstimatedX = new double[numModules];
+		mEstimatedY = new double[numModules];
+		mDeviations = new double[numModules];
+		mModuleDeltas = new double[numModules];
+
+		for (int i = 0; i < numModules; i++) {
+			mStartingX[i] = Constants.SwerveConstants.swerveModuleLocations[i].x();
+			mStartingY[i] = Constants.SwerveConstants.swerveModuleLocations[i].y();
+		}
+		resetModulePoses(0.0, 0.0, 0.0);
+	}
+
+	/**
+	 * Integrates one odometry sample.
+	 *
+	 * @param timestamp          Sample time in seconds.
+	 * @param heading            Robot heading in radians.
+	 * @param driveDistances     Drive distance of each module in meters.
+	 * @param wheelAnglesDegrees Unbounded angle of each module in degrees.
+	 */
+	public void update(double timestamp, double heading, double[] driveDistances, double[] wheelAnglesDegrees) {
+		double cos_heading = Math.cos(heading);
+		double sin_heading = Math.sin(heading);
+
+		double avg_delta = 0.0;
+		for (int i = 0; i < mNumModules; i++) {
+			mModuleDeltas[i] = updateWheelOdometry(i, heading, cos_heading, sin_heading, driveDistances[i],
+					wheelAnglesDegrees[i]);
+			double delta = Math.hypot(mEstimatedX[i] - mPoseX, mEstimatedY[i] - mPoseY);
+			mDeviations[i] = delta;
+			avg_delta += delta;
+		}
+		avg_delta /= mNumModules;
+
+		int min__dev_idx = 0;
+		double min_dev = Double.MAX_VALUE;
+		double x = 0.0;
+		double y = 0.0;
+		int n = 0;
+		for (int i = 0; i < mNumModules; i++) {
+			double dev = Math.abs(mDeviations[i] - avg_delta);
+			if (dev < min_dev) {
+				min_dev = dev;
+				min__dev_idx = i;
+			}
+			if (dev <= 0.01) {
+				x += mEstimatedX[i];
+				y += mEstimatedY[i];
+				n++;
+			}
+		}
+
+		if (n == 0) {
+			x = mEstimatedX[min__dev_idx];
+			y = mEstimatedY[min__dev_idx];
+			n = 1;
+		}
+
+		final double new_x = x / n;
+		final double new_y = y / n;
+		final double new_heading = heading;
+
+		// Velocity calcs, same as new_pose.transformBy(last_velocity_sample.inverse())
+		double sample_window = timestamp - last_sample_timestamp;
+		if (sample_window > 0.02) {
+			double dtheta = new_heading - last_velocity_sample_heading;
+			double cos = Math.cos(dtheta);
+			double sin = Math.sin(dtheta);
+			mVelocityX = (new_x - (last_velocity_sample_x * cos - last_velocity_sample_y * sin)) / sample_window;
+			mVelocityY = (new_y - (last_velocity_sample_x * sin + last_velocity_sample_y * cos)) / sample_window;
+			last_sample_timestamp = timestamp;
+			last_velocity_sample_x = new_x;
+			last_velocity_sample_y = new_y;
+			last_velocity_sample_heading = new_heading;
+		}
+		mPoseX = new_x;
+		mPoseY = new_y;
+		mPoseHeading = new_heading;
+
+		resetModulePoses(mPoseX, mPoseY, mPoseHeading);
+	}
+
+	/**
+	 * Replaces the integrated pose and velocity, e.g. with the simulator's ground
+	 * truth. The velocity sampling window is left alone.
+	 */
+	public void overrideState(double x, double y, double heading, double vx, double vy) {
+		mPoseX = x;
+		mPoseY = y;
+		mPoseHeading = heading;
+		mVelocityX = vx;
+		mVelocityY = vy;
+		resetModulePoses(x, y, heading);
+	}
+
+	/**
+	 * Moves the robot to a new pose, keeping the velocity state.
+	 *
+	 * @param x       The robot x.
+	 * @param y       The robot y.
+	 * @param heading The robot heading in radians.
+	 */
+	public void resetPose(double x, double y, double heading) {
+		mPoseX = x;
+		mPoseY = y;
+		mPoseHeading = heading;
+		resetModulePoses(x, y, heading);
+	}
+
+	/**
+	 * Updates the odometry for a single wheel module.
+	 *
+	 * @return The distance the wheel travelled since the last update.
+	 */
+	private double updateWheelOdometry(int i, double heading, double cos_heading, double sin_heading,
+			double currentEncDistance, double wheelAngleDegrees) {
+		double deltaEncDistance = currentEncDistance - mPreviousEncDistance[i];
+		double wheelAngle = Math.toRadians(wheelAngleDegrees) + heading;
+		double deltaX = Math.cos(wheelAngle) * deltaEncDistance;
+		double deltaY = Math.sin(wheelAngle) * deltaEncDistance;
+
+		double xCorrectionFactor = 1.0;
+		double yCorrectionFactor = 1.0;
+
+		if (Math.signum(deltaX) == 1.0) {
+			xCorrectionFactor = (8.782 - .89) / 9.44;
+
+		} else if (Math.signum(deltaX) == -1.0) {
+			xCorrectionFactor = (8.782 - .89) / 9.46;
+		}
+
+		if (Math.signum(deltaY) == 1.0) {
+			yCorrectionFactor = -(-8 + .89) / 8.71;
+
+		} else if (Math.signum(deltaY) == -1.0) {
+			yCorrectionFactor = -(-8 + .89) / 8.62;
+		}
+
+		mPositionX[i] += deltaX * xCorrectionFactor;
+		mPositionY[i] += deltaY * yCorrectionFactor;
+
+		// Wheel pose transformed back to the robot center
+		mEstimatedX[i] = mPositionX[i] - (mStartingX[i] * cos_heading - mStartingY[i] * sin_heading);
+		mEstimatedY[i] = mPositionY[i] - (mStartingX[i] * sin_heading + mStartingY[i] * cos_heading);
+
+		mPreviousEncDistance[i] = currentEncDistance;
+		return deltaEncDistance;
+	}
+
+	/**
+	 * Resets the poses of the modules to the given robot pose.
+	 */
+	private void resetModulePoses(double x, double y, double heading) {
+		double cos = Math.cos(heading);
+		double sin = Math.sin(heading);
+		for (int i = 0; i < mNumModules; i++) {
+			mPositionX[i] = x + mStartingX[i] * cos - mStartingY[i] * sin;
+			mPositionY[i] = y + mStartingX[i] * sin + mStartingY[i] * cos;
+		}
+	}
+
+	public double getX() {
+		return mPoseX;
+	}
+
+	public double getY() {
+		return mPoseY;
+	}
+
+	public double getHeading() {
+		return mPoseHeading;
+	}
+
+	public double getVelocityX() {
+		return mVelocityX;
+	}
+
+	public double getVelocityY() {
+		return mVelocityY;
+	}
+
+	/**
+	 * @return Distance each module travelled in the last update. Owned by the
+	 *         integrator.
+	 */
+	public double[] getModuleDeltas() {
+		return mModuleDeltas;
+	}
+
+	public double getWheelX(int i) {
+		return mPositionX[i];
+	}
+
+	public double getWheelY(int i) {
+		return mPositionY[i];
+	}
+}
@@ -483,7 +483,9 @@ public class Superstructure extends Subsystem {
 						mIntakeDeploy.stateRequest(goal.mIntakeDeployState),
 						// mClimb.stateRequest(goal.mClimbState),
 						mIntakeRollers.stateRequest(goal.mIntakeRollersState)),
-			new WaitRequest(0.3)
+				goal.mEndEffectorRollersState == EndEffectorRollers.State.CORAL_INTAKE
+						? mEndEffectorRollers.waitForPieceRequest()
+						: new WaitRequest(0.3)
 		// breakWait(mIndexerBeam, true)
 		).addName("Intaking");
 	}
@@ -512,7 +514,8 @@ public class Superstructure extends Subsystem {
 				// autoAlignWa.Homeit(),
 				// mLEDs.stateRequest(TimedLEDState.PREPARED),
 				ReadyToScoreRequest(),
-				mEndEffectorRollers.stateRequest(goal.mEndEffectorRollersState)
+				mEndEffectorRollers.stateRequest(goal.mEndEffectorRollersState),
+				mEndEffectorRollers.waitForReleaseRequest()
 				// breakWait(mEndEffectorBeam, false)
 				// mLEDs.stateRequest(TimedLEDState.IDLE)
 		).addName("Score");
@@ -2,40 +2,88 @@ package com.team5817.frc2025.subsystems;
 
 import com.ctre.phoenix6.BaseStatusSignal;
 import com.team5817.frc2025.Constants;
+import com.team5817.frc2025.RobotState;
 import com.team5817.frc2025.Constants.Mode;
+import com.team5817.frc2025.Constants.PoseEstimatorConstants;
 import com.team5817.frc2025.subsystems.Drive.Drive;
 import com.team5817.lib.drivers.Pigeon;
 import com.team5817.lib.drivers.Subsystem;
 import com.team5817.lib.swerve.SwerveModule;
+import com.team5817.lib.util.OdometrySampleBuffer;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Rotation2d;
 import com.team254.lib.geometry.Translation2d;
 import com.team254.lib.swerve.ChassisSpeeds;
 
 import edu.wpi.first.wpilibj.Timer;
-import java.util.ArrayList;
-import java.util.List;
+
+import java.util.Arrays;
 
 import org.littletonrobotics.junction.AutoLog;
+import org.littletonrobotics.junction.Logger;
 
 /**
  * The WheelTracker class is responsible for tracking the position and velocity of the robot
  * using the swerve modules and a Pigeon IMU.
+ * <p>
+ * Odometry is integrated at 250 Hz on its own thread, which hands every sample
+ * to the control loop through a lock-free ring buffer. The control loop drains
+ * the buffer once per tick in {@link #readPeriodicInputs()}.
  */
 public class WheelTracker extends Subsystem {
 	private final Pigeon mPigeon = Pigeon.getInstance();
 	private final SwerveModule[] mModules;
 
-	private WheelProperties[] wheels = new WheelProperties[4];
+	private BaseStatusSignal[] mAllSignals;
 
-	private double robotHeading;
+	private OdometryThread mOdometryThread;
+	// Odometry thread working state. In replay the control loop drives the
+	// integrator instead, from the logged samples.
+	private final OdometryIntegrator mIntegrator = new OdometryIntegrator(4);
+	private final double[] mDriveDistances = new double[4];
+	private final double[] mWheelAngles = new double[4];
+	private int mAppliedResetCount = 0;
 
-	private double mTimestamp;
+	private static final int kSampleBufferCapacity = 64;
+	private final OdometrySampleBuffer mSampleBuffer = new OdometrySampleBuffer(kSampleBufferCapacity, 4);
 
-	private BaseStatusSignal[] mAllSignals;
+	/**
+	 * A pose reset requested by the control loop, applied by the odometry thread.
+	 */
+	private static class PendingReset {
+		final Pose2d pose;
+		final int count;
 
-	private OdometryThread mOdometryThread;
-	private WheelTrackerInputsAutoLogged inputs = new WheelTrackerInputsAutoLogged();
+		PendingReset(Pose2d pose, int count) {
+			this.pose = pose;
+			this.count = count;
+		}
+	}
+
+	private volatile PendingReset mPendingReset = null;
+
+	// Control loop state
+	private final WheelTrackerInputsAutoLogged mInputs = new WheelTrackerInputsAutoLogged();
+	private final OdometrySampleBuffer.Sample mSample = new OdometrySampleBuffer.Sample(4);
+	private final double[] mScratchTimestamps = new double[kSampleBufferCapacity];
+	private final double[] mScratchGyroHeadings = new double[kSampleBufferCapacity];
+	private final long[] mScratchResetCounts = new long[kSampleBufferCapacity];
+	private final double[] mScratchDistances = new double[kSampleBufferCapacity * 4];
+	private final double[] mScratchAngles = new double[kSampleBufferCapacity * 4];
+	// Integrated state of each drained sample, from the odometry thread or, in
+	// replay, from re-running the integration
+	private final double[] mPoseX = new double[kSampleBufferCapacity];
+	private final double[] mPoseY = new double[kSampleBufferCapacity];
+	private final double[] mPoseHeadings = new double[kSampleBufferCapacity];
+	private final double[] mVelocityX = new double[kSampleBufferCapacity];
+	private final double[] mVelocityY = new double[kSampleBufferCapacity];
+	private int mResetRequestCount = 0;
+	private int mReplayResetCount = 0;
+	private int mDeferredSamples = 0;
+	private long mReplayMismatches = 0;
+	private Pose2d mLatestPose = new Pose2d();
+	private Translation2d mLatestVelocity = new Translation2d();
+	private double mTimestamp;
 
 	/**
 	 * Constructs a WheelTracker with the given swerve modules.
@@ -50,17 +98,6 @@ public class WheelTracker extends Subsystem {
 
 		mModules = modules;
 
-		for (int i = 0; i < wheels.length; i++) {
-			WheelProperties w = new WheelProperties();
-			Translation2d robotToWheel = new Translation2d(
-					Constants.SwerveConstants.swerveModuleLocations[i].x(),
-					Constants.SwerveConstants.swerveModuleLocations[i].y());
-			w.startingPosition = robotToWheel;
-			wheels[i] = w;
-		}
-
-		resetModulePoses();
-
 		mAllSignals = new BaseStatusSignal[(4 * 4) + 2];
 		for (int i = 0; i < 4; ++i) {
 			var signals = mModules[i].getUsedStatusSignals();
@@ -73,16 +110,153 @@ public class WheelTracker extends Subsystem {
 		mAllSignals[mAllSignals.length - 1] = mPigeon.getRateStatusSignal();
 
 		for (BaseStatusSignal sig : mAllSignals) {
-			sig.setUpdateFrequency(250);
+			sig.setUpdateFrequency(PoseEstimatorConstants.kOdometryFrequencyHz);
+		}
+
+		// Replay has no hardware to sample, it integrates the logged samples instead
+		if (Constants.mode != Mode.REPLAY) {
+			mOdometryThread = new OdometryThread();
+			mOdometryThread.setDaemon(true);
+			mOdometryThread.start();
 		}
-		mOdometryThread = new OdometryThread();
-		mOdometryThread.setDaemon(true);
-		mOdometryThread.start();
 	}
 
+	/**
+	 * Drains every odometry sample produced since the last tick into the logged
+	 * inputs, then into RobotState. Samples integrated before the latest pose
+	 * reset are discarded. In replay the poses come from re-running the
+	 * integration over the logged inputs.
+	 */
 	@Override
 	public void readPeriodicInputs() {
+		if (Constants.mode != Mode.REPLAY) {
+			drainSamples();
+		}
+		Logger.processInputs("Drive/Odometry", mInputs);
+		int n = mInputs.timestamps.length;
+		if (Constants.mode == Mode.REPLAY) {
+			replaySamples(n);
+			mReplayMismatches += countReplayMismatches(n);
+			Logger.recordOutput("Drive/Odometry/Replay Mismatches", mReplayMismatches);
+		}
+
+		RobotState robotState = RobotState.getInstance();
+		int used = 0;
+		for (int s = 0; s < n; s++) {
+			if (mInputs.resetCounts[s] != mResetRequestCount) {
+				continue;
+			}
+			mLatestPose = new Pose2d(mPoseX[s], mPoseY[s], Rotation2d.fromRadians(mPoseHeadings[s]));
+			mLatestVelocity = new Translation2d(mVelocityX[s], mVelocityY[s]);
+			mTimestamp = mInputs.timestamps[s];
+			robotState.addPoseObservation(mTimestamp, mLatestPose);
+			used++;
+		}
+		Logger.recordOutput("Drive/Odometry/Samples Per Tick", used);
+		Logger.recordOutput("Drive/Odometry/X", Arrays.copyOf(mPoseX, n));
+		Logger.recordOutput("Drive/Odometry/Y", Arrays.copyOf(mPoseY, n));
+		Logger.recordOutput("Drive/Odometry/Headings", Arrays.copyOf(mPoseHeadings, n));
+		Logger.recordOutput("Drive/Odometry/Deferred Samples", mDeferredSamples);
+	}
+
+	/**
+	 * Copies the buffered samples into the inputs as one array per field. At most
+	 * one buffer's worth is taken per tick; anything the odometry thread adds
+	 * meanwhile waits for the next tick and is counted as deferred.
+	 */
+	private void drainSamples() {
+		int n = 0;
+		while (n < kSampleBufferCapacity && mSampleBuffer.poll(mSample)) {
+			mScratchTimestamps[n] = mSample.timestamp;
+			mScratchGyroHeadings[n] = mSample.gyroHeading;
+			mScratchResetCounts[n] = mSample.resetCount;
+			System.arraycopy(mSample.moduleDistances, 0, mScratchDistances, n * 4, 4);
+			System.arraycopy(mSample.moduleAngles, 0, mScratchAngles, n * 4, 4);
+			mPoseX[n] = mSample.x;
+			mPoseY[n] = mSample.y;
+			mPoseHeadings[n] = mSample.heading;
+			mVelocityX[n] = mSample.vx;
+			mVelocityY[n] = mSample.vy;
+			n++;
+		}
+		mDeferredSamples = mSampleBuffer.size();
+		mInputs.timestamps = Arrays.copyOf(mScratchTimestamps, n);
+		mInputs.gyroHeadings = Arrays.copyOf(mScratchGyroHeadings, n);
+		mInputs.resetCounts = Arrays.copyOf(mScratchResetCounts, n);
+		mInputs.moduleDistances = Arrays.copyOf(mScratchDistances, n * 4);
+		mInputs.moduleAngles = Arrays.copyOf(mScratchAngles, n * 4);
+		mInputs.integratedX = Arrays.copyOf(mPoseX, n);
+		mInputs.integratedY = Arrays.copyOf(mPoseY, n);
+		mInputs.integratedHeadings = Arrays.copyOf(mPoseHeadings, n);
+		mInputs.droppedSamples = mSampleBuffer.getDroppedCount();
+
+		// The simulator's ground truth replaces the integration, so replay needs it
+		if (Constants.mode == Mode.SIM) {
+			mInputs.simX = Arrays.copyOf(mPoseX, n);
+			mInputs.simY = Arrays.copyOf(mPoseY, n);
+			mInputs.simHeadings = Arrays.copyOf(mPoseHeadings, n);
+			mInputs.simVx = Arrays.copyOf(mVelocityX, n);
+			mInputs.simVy = Arrays.copyOf(mVelocityY, n);
+		}
+	}
+
+	/**
+	 * Re-runs the integration over the logged samples. Samples dropped on the
+	 * robot were never integrated, so the result is the pose the robot had.
+	 *
+	 * @param n Number of logged samples this tick.
+	 */
+	private void replaySamples(int n) {
+		boolean simulated = mInputs.simX.length == n;
+		for (int s = 0; s < n; s++) {
+			int resetCount = (int) mInputs.resetCounts[s];
+			if (resetCount != mReplayResetCount) {
+				PendingReset reset = mPendingReset;
+				if (reset != null && reset.count == resetCount) {
+					mIntegrator.resetPose(reset.pose.getTranslation().x(), reset.pose.getTranslation().y(),
+							reset.pose.getRotation().getRadians());
+				}
+				mReplayResetCount = resetCount;
+			}
+
+			System.arraycopy(mInputs.moduleDistances, s * 4, mDriveDistances, 0, 4);
+			System.arraycopy(mInputs.moduleAngles, s * 4, mWheelAngles, 0, 4);
+			mIntegrator.update(mInputs.timestamps[s], mInputs.gyroHeadings[s], mDriveDistances, mWheelAngles);
+			if (simulated) {
+				mIntegrator.overrideState(mInputs.simX[s], mInputs.simY[s], mInputs.simHeadings[s],
+						mInputs.simVx[s], mInputs.simVy[s]);
+			}
+
+			mPoseX[s] = mIntegrator.getX();
+			mPoseY[s] = mIntegrator.getY();
+			mPoseHeadings[s] = mIntegrator.getHeading();
+			mVelocityX[s] = mIntegrator.getVelocityX();
+			mVelocityY[s] = mIntegrator.getVelocityY();
+		}
+	}
 
+	/**
+	 * Compares the re-integrated poses with the ones the robot logged. Replay
+	 * keeps its own result either way, so a mismatch shows the integration no
+	 * longer reproduces the match rather than being hidden.
+	 *
+	 * @param n Number of logged samples this tick.
+	 * @return Number of samples whose x, y or heading differ in any bit.
+	 */
+	private int countReplayMismatches(int n) {
+		// Logs from before the robot recorded its integration have nothing to compare
+		if (mInputs.integratedX.length != n) {
+			return 0;
+		}
+		int mismatches = 0;
+		for (int s = 0; s < n; s++) {
+			if (Double.compare(mPoseX[s], mInputs.integratedX[s]) != 0
+					|| Double.compare(mPoseY[s], mInputs.integratedY[s]) != 0
+					|| Double.compare(mPoseHeadings[s], mInputs.integratedHeadings[s]) != 0) {
+				mismatches++;
+			}
+		}
+		return mismatches;
 	}
 
 	private class OdometryThread extends Thread {
@@ -96,8 +270,12 @@ public class WheelTracker extends Subsystem {
 						m.refreshSignals(); // No downside to refreshing io reads from multiple threads
 					}
 
-					robotHeading = mPigeon.getYaw().getRadians();
-					updateRobotPose(Timer.getTimestamp());
+					double robotHeading = mPigeon.getLatencyCompensatedYaw().getRadians();
+					for (int i = 0; i < mModules.length; i++) {
+						mDriveDistances[i] = mModules[i].getDriveDistanceMeters();
+						mWheelAngles[i] = mModules[i].getCurrentUnboundedDegrees();
+					}
+					updateRobotPose(Timer.getTimestamp(), robotHeading);
 				} catch (Exception e) {
 					e.printStackTrace();
 				}
@@ -106,164 +284,75 @@ public class WheelTracker extends Subsystem {
 
 	}
 
-	private Pose2d last_velocity_sample = new Pose2d();
-	private double last_sample_timestamp = 0.0;
-
 	/**
-	 * Updates the robot's pose based on the current timestamp.
+	 * Updates the robot's pose based on the current timestamp. Runs on the
+	 * odometry thread and does not allocate outside of simulation.
 	 *
-	 * @param timestamp The current timestamp.
+	 * @param timestamp    The current timestamp.
+	 * @param robotHeading The robot heading in radians.
 	 */
-	private void updateRobotPose(double timestamp) {
-		double x = 0.0;
-		double y = 0.0;
-		Rotation2d heading = Rotation2d.fromRadians(robotHeading);
-
-		double avg_delta = 0.0;
-		double[] deltas = new double[4];
-		for (int i = 0; i < mModules.length; i++) {
-			SwerveModule m = mModules[i];
-			WheelProperties w = wheels[i];
-			updateWheelOdometry(m, w);
-			double delta = w.estimatedRobotPose
-					.getTranslation()
-					.translateBy(inputs.pose.getTranslation().inverse())
-					.norm();
-			deltas[i] = delta;
-			avg_delta += delta;
-		}
-		avg_delta /= 4;
-
-		int min__dev_idx = 0;
-		double min_dev = Double.MAX_VALUE;
-		List<WheelProperties> accurateModules = new ArrayList<>();
-		for (int i = 0; i < deltas.length; i++) {
-			WheelProperties w = wheels[i];
-			double dev = Math.abs(deltas[i] - avg_delta);
-			if (dev < min_dev) {
-				min_dev = dev;
-				min__dev_idx = i;
-			}
-			if (dev <= 0.01) {
-				accurateModules.add(w);
-			}
+	private void updateRobotPose(double timestamp, double robotHeading) {
+		// Skip the sample rather than integrate one replay would never see
+		if (!mSampleBuffer.reserve()) {
+			return;
 		}
 
-		if (accurateModules.isEmpty()) {
-			accurateModules.add(wheels[min__dev_idx]);
+		PendingReset reset = mPendingReset;
+		if (reset != null && reset.count != mAppliedResetCount) {
+			mIntegrator.resetPose(reset.pose.getTranslation().x(), reset.pose.getTranslation().y(),
+					reset.pose.getRotation().getRadians());
+			mAppliedResetCount = reset.count;
 		}
 
-		int n = accurateModules.size();
-
-		for (WheelProperties w : accurateModules) {
-			x += w.estimatedRobotPose.getTranslation().x();
-			y += w.estimatedRobotPose.getTranslation().y();
-		}
-		final Pose2d new_pose = new Pose2d(new Translation2d(x / n, y / n), heading);
-
-		// Velocity calcs
-		double sample_window = timestamp - last_sample_timestamp;
-		if (sample_window > 0.02) {
-			final Translation2d translation = (new_pose.transformBy(last_velocity_sample.inverse()).getTranslation());
-			inputs.velocity = translation.scale(1.0 / sample_window);
-			last_sample_timestamp = timestamp;
-			last_velocity_sample = new_pose;
-		}
-		inputs.pose = new_pose;
+		mIntegrator.update(timestamp, robotHeading, mDriveDistances, mWheelAngles);
 		if (Constants.mode == Mode.SIM) {
-			inputs.pose = new Pose2d(Drive.driveSimulation.getSimulatedDriveTrainPose());
-			inputs.velocity = new ChassisSpeeds(
+			Pose2d simPose = new Pose2d(Drive.driveSimulation.getSimulatedDriveTrainPose());
+			Translation2d simVelocity = new ChassisSpeeds(
 					Drive.driveSimulation.getDriveTrainSimulatedChassisSpeedsFieldRelative()).getTranslation();
+			mIntegrator.overrideState(simPose.getTranslation().x(), simPose.getTranslation().y(),
+					simPose.getRotation().getRadians(), simVelocity.x(), simVelocity.y());
 		}
 
-		resetModulePoses(inputs.pose);
-	}
-
-	@AutoLog
-	public static class WheelTrackerInputs {
-		Pose2d pose = new Pose2d();
-		Translation2d velocity = new Translation2d();
+		mSampleBuffer.offer(timestamp, robotHeading, mIntegrator.getX(), mIntegrator.getY(), mIntegrator.getHeading(),
+				mIntegrator.getVelocityX(), mIntegrator.getVelocityY(), mAppliedResetCount,
+				mIntegrator.getModuleDeltas(), mDriveDistances, mWheelAngles);
 	}
 
 	/**
-	 * Updates the odometry for a single wheel module.
-	 *
-	 * @param module The swerve module.
-	 * @param props  The properties of the wheel.
+	 * What the integration consumed for every odometry sample drained in one
+	 * tick, as parallel arrays so replay sees the full 250 Hz history. Module
+	 * arrays hold four entries per sample.
 	 */
-	private void updateWheelOdometry(SwerveModule module, WheelProperties props) {
-		double currentEncDistance = module.getDriveDistanceMeters();
-		double deltaEncDistance = currentEncDistance - props.previousEncDistance;
-		Rotation2d wheelAngle = module.getModuleAngle().rotateBy(Rotation2d.fromRadians(robotHeading));
-		Translation2d deltaPosition = new Translation2d(wheelAngle.cos() * deltaEncDistance,
-				wheelAngle.sin() * deltaEncDistance);
-
-		double xCorrectionFactor = 1.0;
-		double yCorrectionFactor = 1.0;
-
-		if (Math.signum(deltaPosition.x()) == 1.0) {
-			xCorrectionFactor = (8.782 - .89) / 9.44;
-
-		} else if (Math.signum(deltaPosition.x()) == -1.0) {
-			xCorrectionFactor = (8.782 - .89) / 9.46;
-		}
-
-		if (Math.signum(deltaPosition.y()) == 1.0) {
-			yCorrectionFactor = -(-8 + .89) / 8.71;
-
-		} else if (Math.signum(deltaPosition.y()) == -1.0) {
-			yCorrectionFactor = -(-8 + .89) / 8.62;
-		}
-
-		deltaPosition = new Translation2d(deltaPosition.x() * xCorrectionFactor, deltaPosition.y() * yCorrectionFactor);
-		Translation2d updatedPosition = props.position.translateBy(deltaPosition);
-		Pose2d wheelPose = new Pose2d(updatedPosition, Rotation2d.fromRadians(robotHeading));
-		props.estimatedRobotPose = wheelPose.transformBy(Pose2d.fromTranslation(props.startingPosition.inverse()));
-
-		props.position = updatedPosition;
-		props.previousEncDistance = currentEncDistance;
-	}
-
-	/**
-	 * Resets the poses of the modules to the given robot pose.
-	 *
-	 * @param robotPose The new robot pose.
-	 */
-	private void resetModulePoses(Pose2d robotPose) {
-		for (int i = 0; i < mModules.length; i++) {
-			WheelProperties props = wheels[i];
-			Translation2d modulePosition = robotPose
-					.transformBy(Pose2d.fromTranslation(props.startingPosition))
-					.getTranslation();
-			props.position = modulePosition;
-		}
-	}
-
-	/**
-	 * Resets the poses of the modules to their starting positions.
-	 */
-	private void resetModulePoses() {
-		for (int i = 0; i < mModules.length; i++) {
-			WheelProperties props = wheels[i];
-			props.position = props.startingPosition;
-		}
+	@AutoLog
+	public static class WheelTrackerInputs {
+		public double[] timestamps = new double[] {};
+		public double[] gyroHeadings = new double[] {};
+		public double[] moduleDistances = new double[] {};
+		public double[] moduleAngles = new double[] {};
+		public long[] resetCounts = new long[] {};
+		// What the robot integrated, so replay can check it reproduces the same poses
+		public double[] integratedX = new double[] {};
+		public double[] integratedY = new double[] {};
+		public double[] integratedHeadings = new double[] {};
+		// Simulator ground truth that replaced the integrated state, empty outside SIM
+		public double[] simX = new double[] {};
+		public double[] simY = new double[] {};
+		public double[] simHeadings = new double[] {};
+		public double[] simVx = new double[] {};
+		public double[] simVy = new double[] {};
+		public long droppedSamples = 0;
 	}
 
 	/**
-	 * Resets the robot's pose to the given pose.
+	 * Resets the robot's pose to the given pose. The odometry thread applies the
+	 * reset before its next sample.
 	 *
 	 * @param pose The new robot pose.
 	 */
 	public void resetPose(Pose2d pose) {
-		inputs.pose = pose;
-		resetModulePoses(inputs.pose);
-	}
-
-	public class WheelProperties {
-		private double previousEncDistance = 0;
-		private Translation2d position;
-		private Translation2d startingPosition;
-		private Pose2d estimatedRobotPose = new Pose2d();
+		mResetRequestCount++;
+		mPendingReset = new PendingReset(pose, mResetRequestCount);
+		mLatestPose = pose;
 	}
 
 	/**
@@ -272,7 +361,7 @@ public class WheelTracker extends Subsystem {
 	 * @return The current robot pose.
 	 */
 	public Pose2d getRobotPose() {
-		return inputs.pose;
+		return mLatestPose;
 	}
 
 	/**
@@ -281,55 +370,55 @@ public class WheelTracker extends Subsystem {
 	 * @return The measured velocity.
 	 */
 	public Translation2d getMeasuredVelocity() {
-		return inputs.velocity;
+		return mLatestVelocity;
 	}
 
 	/**
-	 * Returns the current timestamp.
+	 * Returns the timestamp of the latest drained sample.
 	 *
-	 * @return The current timestamp.
+	 * @return The latest sample timestamp.
 	 */
 	public double getTimestamp() {
 		return mTimestamp;
 	}
 
 	public double wheel0_x() {
-		return wheels[0].position.x();
+		return mIntegrator.getWheelX(0);
 	}
 
 	public double wheel0_y() {
-		return wheels[0].position.y();
+		return mIntegrator.getWheelY(0);
 	}
 
 	public double wheel1_x() {
-		return wheels[1].position.x();
+		return mIntegrator.getWheelX(1);
 	}
 
 	public double wheel1_y() {
-		return wheels[1].position.y();
+		return mIntegrator.getWheelY(1);
 	}
 
 	public double wheel2_x() {
-		return wheels[2].position.x();
+		return mIntegrator.getWheelX(2);
 	}
 
 	public double wheel2_y() {
-		return wheels[2].position.y();
+		return mIntegrator.getWheelY(2);
 	}
 
 	public double wheel3_x() {
-		return wheels[3].position.x();
+		return mIntegrator.getWheelX(3);
 	}
 
 	public double wheel3_y() {
-		return wheels[3].position.y();
+		return mIntegrator.getWheelY(3);
 	}
 
 	public double robot_x() {
-		return inputs.velocity.getTranslation().x();
+		return mLatestVelocity.x();
 	}
 
 	public double robot_y() {
-		return inputs.velocity.getTranslation().y();
+		return mLatestVelocity.y();
 	}
 }
@@ -0,0 +1,141 @@
+package com.team5817.frc2025.subsystems.vision;
+
+import org.littletonrobotics.junction.Logger;
+
+import com.team5817.frc2025.Constants.PoseEstimatorConstants;
+import com.team5817.lib.util.RollingHistogram;
+
+/**
+ * Tracks whether one camera is healthy. Frames are recorded as they are
+ * ingested, possibly from the vision thread, into rolling histograms of
+ * pipeline latency, time between frames and tag count. Once per tick the
+ * control loop checks the heartbeat for stalls and grades the camera.
+ */
+public class CameraHealthMonitor {
+	public enum State {
+		// Frames arrive on time
+		CONNECTED,
+		// Frames are slow, late or briefly stalled, trust them less
+		DEGRADED,
+		// No new frames for a while
+		LOST
+	}
+
+	private static final double[] kLatencyBucketsMs = { 10, 20, 30, 40, 50, 60, 80, 100, 150,
+			Double.POSITIVE_INFINITY };
+	private static final double[] kFrameIntervalBucketsMs = { 10, 20, 30, 40, 50, 75, 100, 150, 250,
+			Double.POSITIVE_INFINITY };
+	private static final double[] kTagCountBuckets = { 0, 1, 2, 3, 4, Double.POSITIVE_INFINITY };
+
+	private final String mName;
+
+	// Guarded by this, written by the ingesting thread
+	private final RollingHistogram mLatencyMs;
+	private final RollingHistogram mFrameIntervalMs;
+	private final RollingHistogram mTagCount;
+	private double mLastFrameTimestamp = Double.NaN;
+	private double mLastFrameArrival = Double.NEGATIVE_INFINITY;
+
+	// Control loop state
+	private long mLastHeartbeat = -1;
+	private double mLastHeartbeatChange = Double.NEGATIVE_INFINITY;
+	private State mState = State.LOST;
+	private double mLatencyP90Ms = 0.0;
+	private double mMeanFrameIntervalMs = 0.0;
+	private final int[] mLatencyCounts;
+	private final int[] mFrameIntervalCounts;
+	private final int[] mTagCountCounts;
+
+	/**
+	 * Constructs a monitor.
+	 *
+	 * @param name the camera's name, used as the log prefix
+	 */
+	public CameraHealthMonitor(String name) {
+		mName = name;
+		int window = PoseEstimatorConstants.kVisionHealthWindowFrames;
+		mLatencyMs = new RollingHistogram(kLatencyBucketsMs, window);
+		mFrameIntervalMs = new RollingHistogram(kFrameIntervalBucketsMs, window);
+		mTagCount = new RollingHistogram(kTagCountBuckets, window);
+		mLatencyCounts = new int[kLatencyBucketsMs.length];
+		mFrameIntervalCounts = new int[kFrameIntervalBucketsMs.length];
+		mTagCountCounts = new int[kTagCountBuckets.length];
+	}
+
+	/**
+	 * Records a newly ingested frame. Safe to call from the vision thread.
+	 *
+	 * @param captureTimestamp when the frame was captured in seconds
+	 * @param latencyMs        capture plus pipeline latency in milliseconds
+	 * @param tagCount         number of tags in the frame
+	 * @param arrivalTimestamp when the frame was read in seconds
+	 */
+	public synchronized void recordFrame(double captureTimestamp, double latencyMs, int tagCount,
+			double arrivalTimestamp) {
+		mLatencyMs.add(latencyMs);
+		mTagCount.add(tagCount);
+		if (!Double.isNaN(mLastFrameTimestamp) && captureTimestamp > mLastFrameTimestamp) {
+			mFrameIntervalMs.add((captureTimestamp - mLastFrameTimestamp) * 1000.0);
+		}
+		mLastFrameTimestamp = captureTimestamp;
+		mLastFrameArrival = arrivalTimestamp;
+	}
+
+	/**
+	 * Grades the camera. Control loop only.
+	 *
+	 * @param timestamp the current timestamp in seconds
+	 * @param heartbeat the camera's heartbeat, negative if it doesn't publish one
+	 */
+	public void update(double timestamp, long heartbeat) {
+		if (heartbeat >= 0 && heartbeat != mLastHeartbeat) {
+			mLastHeartbeat = heartbeat;
+			mLastHeartbeatChange = timestamp;
+		}
+
+		double lastAlive;
+		synchronized (this) {
+			mLatencyP90Ms = mLatencyMs.getQuantile(0.9);
+			mMeanFrameIntervalMs = mFrameIntervalMs.getMean();
+			mLatencyMs.copyCounts(mLatencyCounts);
+			mFrameIntervalMs.copyCounts(mFrameIntervalCounts);
+			mTagCount.copyCounts(mTagCountCounts);
+			// Without a heartbeat fall back to when a frame last showed up
+			lastAlive = heartbeat >= 0 ? mLastHeartbeatChange : mLastFrameArrival;
+		}
+
+		double stalledFor = timestamp - lastAlive;
+		if (stalledFor > PoseEstimatorConstants.kVisionLostTimeoutSeconds) {
+			mState = State.LOST;
+		} else if (stalledFor > PoseEstimatorConstants.kVisionStallTimeoutSeconds
+				|| mLatencyP90Ms > PoseEstimatorConstants.kVisionDegradedLatencyMs
+				|| mMeanFrameIntervalMs > PoseEstimatorConstants.kVisionDegradedFrameIntervalSeconds * 1000.0) {
+			mState = State.DEGRADED;
+		} else {
+			mState = State.CONNECTED;
+		}
+	}
+
+	public State getState() {
+		return mState;
+	}
+
+	/**
+	 * @return The factor to scale this camera's measurement std dev by.
+	 */
+	public double getStdDevScale() {
+		return mState == State.DEGRADED ? PoseEstimatorConstants.kVisionDegradedStdDevScale : 1.0;
+	}
+
+	/**
+	 * Logs the state and histograms as of the last {@link #update}.
+	 */
+	public void outputTelemetry() {
+		Logger.recordOutput(mName + "/Health/State", mState);
+		Logger.recordOutput(mName + "/Health/Latency P90 Ms", mLatencyP90Ms);
+		Logger.recordOutput(mName + "/Health/Mean Frame Interval Ms", mMeanFrameIntervalMs);
+		Logger.recordOutput(mName + "/Health/Latency Histogram", mLatencyCounts);
+		Logger.recordOutput(mName + "/Health/Frame Interval Histogram", mFrameIntervalCounts);
+		Logger.recordOutput(mName + "/Health/Tag Count Histogram", mTagCountCounts);
+	}
+}
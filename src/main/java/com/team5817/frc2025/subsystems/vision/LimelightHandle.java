@@ -0,0 +1,162 @@
+package com.team5817.frc2025.subsystems.vision;
+
+import java.util.EnumSet;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListenerPoller;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+
+/**
+ * Typed NetworkTables access to one Limelight. Every subscriber and publisher
+ * is created once here, so per-tick reads skip the table and topic lookups by
+ * name that {@link LimelightHelpers} does on every call, and numeric reads do
+ * not box.
+ */
+public class LimelightHandle {
+	// Frames published between ticks are queued rather than overwritten
+	private static final int kFrameQueueDepth = 10;
+
+	private final String mName;
+	private final NetworkTableInstance mInstance;
+
+	private final DoubleArraySubscriber mBotPoseMegaTag2;
+	private final DoubleArraySubscriber mBotPoseMegaTag1;
+	private final DoubleArraySubscriber mTargetPoseCameraSpace;
+	private final DoubleSubscriber mFps;
+	private final DoubleSubscriber mTagId;
+	private final DoubleSubscriber mHasTarget;
+	private final DoubleSubscriber mHeartbeat;
+
+	private final DoubleArrayPublisher mRobotOrientation;
+	private final double[] mOrientation = new double[6];
+
+	/**
+	 * Constructs a handle on the default NetworkTables instance.
+	 *
+	 * @param name the Limelight's table name
+	 */
+	public LimelightHandle(String name) {
+		this(NetworkTableInstance.getDefault(), name);
+	}
+
+	/**
+	 * Constructs a handle.
+	 *
+	 * @param instance the NetworkTables instance to use
+	 * @param name     the Limelight's table name
+	 */
+	public LimelightHandle(NetworkTableInstance instance, String name) {
+		mName = name;
+		mInstance = instance;
+		NetworkTable table = instance.getTable(name);
+
+		mBotPoseMegaTag2 = table.getDoubleArrayTopic("botpose_orb_wpiblue").subscribe(new double[] {},
+				PubSubOption.pollStorage(kFrameQueueDepth), PubSubOption.keepDuplicates(true));
+		mBotPoseMegaTag1 = table.getDoubleArrayTopic("botpose_wpiblue").subscribe(new double[] {});
+		mTargetPoseCameraSpace = table.getDoubleArrayTopic("targetpose_cameraspace").subscribe(new double[] {});
+		mFps = table.getDoubleTopic("fps").subscribe(0.0);
+		mTagId = table.getDoubleTopic("tid").subscribe(-1.0);
+		mHasTarget = table.getDoubleTopic("tv").subscribe(0.0);
+		mHeartbeat = table.getDoubleTopic("hb").subscribe(-1.0);
+
+		mRobotOrientation = table.getDoubleArrayTopic("robot_orientation_set").publish();
+	}
+
+	public String getName() {
+		return mName;
+	}
+
+	/**
+	 * @return Every MegaTag2 botpose published since the last call, oldest first.
+	 */
+	public TimestampedDoubleArray[] readMegaTag2Queue() {
+		return mBotPoseMegaTag2.readQueue();
+	}
+
+	/**
+	 * @return Server time minus local time in microseconds, 0 when this instance
+	 *         is the server or hasn't synced with one.
+	 */
+	public long getServerTimeOffsetMicros() {
+		return mInstance.getServerTimeOffset().orElse(0L);
+	}
+
+	/**
+	 * Registers a poller for events on the MegaTag2 botpose topic.
+	 *
+	 * @param poller     the poller to notify
+	 * @param eventKinds the events to listen for
+	 * @return the listener handle
+	 */
+	public int addFrameListener(NetworkTableListenerPoller poller, EnumSet<NetworkTableEvent.Kind> eventKinds) {
+		return poller.addListener(mBotPoseMegaTag2, eventKinds);
+	}
+
+	/**
+	 * @return The latest MegaTag1 robot pose in the blue alliance frame.
+	 */
+	public Pose2d getMegaTag1Pose() {
+		return LimelightHelpers.toPose2D(mBotPoseMegaTag1.get());
+	}
+
+	/**
+	 * @return The latest primary target pose in the camera's frame.
+	 */
+	public Pose3d getTargetPoseCameraSpace() {
+		return LimelightHelpers.toPose3D(mTargetPoseCameraSpace.get());
+	}
+
+	public double getFps() {
+		return mFps.get();
+	}
+
+	public int getTagId() {
+		return (int) mTagId.get();
+	}
+
+	public boolean hasTarget() {
+		return mHasTarget.get() == 1.0;
+	}
+
+	/**
+	 * @return The heartbeat, incremented once per processed camera frame, or -1 if
+	 *         the camera has not published one.
+	 */
+	public long getHeartbeat() {
+		return (long) mHeartbeat.get();
+	}
+
+	/**
+	 * Sends the robot's orientation for MegaTag2 and flushes it right away.
+	 * Angles in degrees, rates in degrees per second.
+	 */
+	public void setRobotOrientation(double yaw, double yawRate, double pitch, double pitchRate, double roll,
+			double rollRate) {
+		publishRobotOrientation(yaw, yawRate, pitch, pitchRate, roll, rollRate);
+		mInstance.flush();
+	}
+
+	/**
+	 * Sets the robot's orientation for MegaTag2 without flushing, so several
+	 * cameras can be sent in one flush. Angles in degrees, rates in degrees per
+	 * second.
+	 */
+	public void publishRobotOrientation(double yaw, double yawRate, double pitch, double pitchRate, double roll,
+			double rollRate) {
+		mOrientation[0] = yaw;
+		mOrientation[1] = yawRate;
+		mOrientation[2] = pitch;
+		mOrientation[3] = pitchRate;
+		mOrientation[4] = roll;
+		mOrientation[5] = rollRate;
+		mRobotOrientation.set(mOrientation);
+	}
+}
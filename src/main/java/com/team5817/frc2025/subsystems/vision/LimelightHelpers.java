@@ -669,14 +669,62 @@ public class LimelightHelpers {
     private static PoseEstimate getBotPoseEstimate(String limelightName, String entryName, boolean isMegaTag2) {
         DoubleArrayEntry poseEntry = LimelightHelpers.getLimelightDoubleArrayEntry(limelightName, entryName);
 
-        TimestampedDoubleArray tsValue = poseEntry.getAtomic();
-        double[] poseArray = tsValue.value;
-        long timestamp = tsValue.timestamp;
+        return toPoseEstimate(poseEntry.getAtomic(), isMegaTag2);
+    }
+
+    /**
+     * Parses one botpose sample, e.g. a value read from a subscriber queue.
+     * 
+     * @param tsValue    The timestamped botpose array
+     * @param isMegaTag2 Whether the sample came from a MegaTag2 topic
+     * @return The pose estimate, or null if the array is empty
+     */
+    public static PoseEstimate toPoseEstimate(TimestampedDoubleArray tsValue, boolean isMegaTag2) {
+        if (tsValue.value.length == 0) {
+            return null;
+        }
+        // Local receive time, adjusted for latency
+        return parsePoseEstimate(tsValue, isMegaTag2,
+                (tsValue.timestamp / 1000000.0) - (extractArrayEntry(tsValue.value, 6) / 1000.0));
+    }
 
-        if (poseArray.length == 0) {
-            // Handle the case where no data is available
-            return null; // or some default PoseEstimate
+    /**
+     * Parses one botpose sample, timestamping it with the moment the image was
+     * captured in the local (FPGA) time base. Uses the time the Limelight
+     * published the value rather than when it arrived, so network delay and
+     * queueing don't skew the timestamp.
+     * 
+     * @param tsValue                The timestamped botpose array
+     * @param isMegaTag2             Whether the sample came from a MegaTag2 topic
+     * @param serverTimeOffsetMicros Server time minus local time, 0 on the robot
+     * @return The pose estimate, or null if the array is empty
+     */
+    public static PoseEstimate toPoseEstimate(TimestampedDoubleArray tsValue, boolean isMegaTag2,
+            long serverTimeOffsetMicros) {
+        if (tsValue.value.length == 0) {
+            return null;
         }
+        double latency = extractArrayEntry(tsValue.value, 6);
+        // Server time is 0 when the publisher's clock isn't synced yet
+        long publishTime = tsValue.serverTime != 0 ? tsValue.serverTime - serverTimeOffsetMicros
+                : tsValue.timestamp;
+        return parsePoseEstimate(tsValue, isMegaTag2, captureTimestampSeconds(publishTime, latency));
+    }
+
+    /**
+     * Computes when an image was captured from when its result was published.
+     * 
+     * @param publishTimeMicros Publish time in the local time base, microseconds
+     * @param latencyMs         Capture plus pipeline latency, milliseconds
+     * @return The capture time in seconds
+     */
+    public static double captureTimestampSeconds(long publishTimeMicros, double latencyMs) {
+        return (publishTimeMicros / 1000000.0) - (latencyMs / 1000.0);
+    }
+
+    private static PoseEstimate parsePoseEstimate(TimestampedDoubleArray tsValue, boolean isMegaTag2,
+            double adjustedTimestamp) {
+        double[] poseArray = tsValue.value;
 
         var pose = toPose2D(poseArray);
         double latency = extractArrayEntry(poseArray, 6);
@@ -685,9 +733,6 @@ public class LimelightHelpers {
         double tagDist = extractArrayEntry(poseArray, 9);
         double tagArea = extractArrayEntry(poseArray, 10);
 
-        // Convert server timestamp from microseconds to seconds and adjust for latency
-        double adjustedTimestamp = (timestamp / 1000000.0) - (latency / 1000.0);
-
         RawFiducial[] rawFiducials = new RawFiducial[tagCount];
         int valsPerFiducial = 7;
         int expectedTotalVals = 11 + valsPerFiducial * tagCount;
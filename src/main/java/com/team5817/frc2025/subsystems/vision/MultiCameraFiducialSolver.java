@@ -0,0 +1,237 @@
+package com.team5817.frc2025.subsystems.vision;
+
+import java.util.Optional;
+import java.util.function.DoubleFunction;
+
+import com.team5817.frc2025.RobotState;
+import com.team5817.frc2025.RobotState.VisionUpdate;
+import com.team5817.frc2025.field.FieldLayout;
+import com.team5817.frc2025.subsystems.vision.LimelightHelpers.PoseEstimate;
+import com.team5817.frc2025.subsystems.vision.LimelightHelpers.RawFiducial;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Translation2d;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+
+/**
+ * Solves one robot position from the raw tag observations of every camera,
+ * instead of fusing each camera's MegaTag2 solution on its own.
+ * <p>
+ * Each observation's angles and distance place the tag in the camera frame,
+ * and the camera's extrinsics move it into the robot frame. Observations from
+ * frames captured at different times are shifted by odometry to a common
+ * time, the newest capture. With the heading taken from odometry (the gyro),
+ * as MegaTag2 does, every observation gives a robot position through the tag's
+ * field pose, and the solve is their weighted least squares: an inverse
+ * variance weighted mean, done once more without outliers.
+ * <p>
+ * Call {@link #reset()}, then {@link #addFrame} for each camera's newest frame,
+ * then {@link #solve()}. Control loop only.
+ */
+public class MultiCameraFiducialSolver {
+	public static final String kCameraName = "MultiCamera";
+
+	private static final int kMaxObservations = 32;
+	// Observations this many std devs from the first solve are dropped
+	private static final double kOutlierSigmas = 3.0;
+
+	// Robot position implied by each observation at the solve time, and its std dev
+	private final double[] mRobotX = new double[kMaxObservations];
+	private final double[] mRobotY = new double[kMaxObservations];
+	private final double[] mStdDev = new double[kMaxObservations];
+	private final double[] mTagArea = new double[kMaxObservations];
+	private final int[] mTagId = new int[kMaxObservations];
+
+	// Robot frame tag positions and capture times, kept until solve picks the reference time
+	private final double[] mTagRobotX = new double[kMaxObservations];
+	private final double[] mTagRobotY = new double[kMaxObservations];
+	private final double[] mTagFieldX = new double[kMaxObservations];
+	private final double[] mTagFieldY = new double[kMaxObservations];
+	private final double[] mCaptureTimestamp = new double[kMaxObservations];
+
+	// x, y and std dev of the solve
+	private final double[] mSolution = new double[3];
+
+	private int mCount = 0;
+	private int mFrameCount = 0;
+	private double mLatestTimestamp = Double.NEGATIVE_INFINITY;
+	private double mResidualRms = 0.0;
+
+	/**
+	 * Clears every observation.
+	 */
+	public void reset() {
+		mCount = 0;
+		mFrameCount = 0;
+		mLatestTimestamp = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * Adds the tag observations of one camera frame.
+	 *
+	 * @param estimate      the camera's MegaTag2 frame, with raw fiducials
+	 * @param robotToCamera the camera's extrinsics
+	 */
+	public void addFrame(PoseEstimate estimate, Transform3d robotToCamera) {
+		if (estimate == null || estimate.rawFiducials == null) {
+			return;
+		}
+		boolean added = false;
+		for (RawFiducial fiducial : estimate.rawFiducials) {
+			if (fiducial == null || mCount == kMaxObservations) {
+				continue;
+			}
+			Optional<Pose3d> tagPose = FieldLayout.kTagMap.getTagPose(fiducial.id);
+			if (tagPose.isEmpty()) {
+				continue;
+			}
+
+			// Limelight angles are from the principal point, tx positive right and ty positive up
+			double x = 1.0;
+			double y = -Math.tan(Math.toRadians(fiducial.txnc));
+			double z = Math.tan(Math.toRadians(fiducial.tync));
+			double scale = fiducial.distToCamera / Math.sqrt(x * x + y * y + z * z);
+			Translation3d cameraToTag = new Translation3d(x * scale, y * scale, z * scale);
+			Translation3d robotToTag = cameraToTag.rotateBy(robotToCamera.getRotation())
+					.plus(robotToCamera.getTranslation());
+
+			int i = mCount++;
+			mTagRobotX[i] = robotToTag.getX();
+			mTagRobotY[i] = robotToTag.getY();
+			mTagFieldX[i] = tagPose.get().getX();
+			mTagFieldY[i] = tagPose.get().getY();
+			mCaptureTimestamp[i] = estimate.timestampSeconds;
+			mStdDev[i] = VisionDevice.computeStdDev(1, fiducial.distToCamera, fiducial.ambiguity);
+			mTagArea[i] = fiducial.ta;
+			mTagId[i] = fiducial.id;
+			added = true;
+		}
+		if (added) {
+			mFrameCount++;
+			mLatestTimestamp = Math.max(mLatestTimestamp, estimate.timestampSeconds);
+		}
+	}
+
+	/**
+	 * Solves the robot position from every observation added since the last
+	 * {@link #reset()}, using RobotState's odometry.
+	 *
+	 * @return The combined measurement at the newest capture time, or empty if
+	 *         there were no observations.
+	 */
+	public Optional<VisionUpdate> solve() {
+		RobotState robotState = RobotState.getInstance();
+		return solve(robotState::getPoseFromOdom);
+	}
+
+	/**
+	 * Solves the robot position from every observation added since the last
+	 * {@link #reset()}.
+	 *
+	 * @param poseFromOdom odometry pose at a timestamp
+	 * @return The combined measurement at the newest capture time, or empty if
+	 *         there were no observations.
+	 */
+	public Optional<VisionUpdate> solve(DoubleFunction<Pose2d> poseFromOdom) {
+		if (mCount == 0) {
+			return Optional.empty();
+		}
+		Pose2d odomAtSolve = poseFromOdom.apply(mLatestTimestamp);
+		double heading = odomAtSolve.getRotation().getRadians();
+		double cos = Math.cos(heading);
+		double sin = Math.sin(heading);
+
+		for (int i = 0; i < mCount; i++) {
+			double tagX = mTagRobotX[i];
+			double tagY = mTagRobotY[i];
+			if (mCaptureTimestamp[i] != mLatestTimestamp) {
+				// Move the tag from the robot frame at capture into the robot frame at solve time
+				Pose2d odomAtCapture = poseFromOdom.apply(mCaptureTimestamp[i]);
+				Pose2d captureInSolve = odomAtSolve.inverse().transformBy(odomAtCapture);
+				double c = captureInSolve.getRotation().cos();
+				double s = captureInSolve.getRotation().sin();
+				Translation2d shift = captureInSolve.getTranslation();
+				tagX = c * mTagRobotX[i] - s * mTagRobotY[i] + shift.x();
+				tagY = s * mTagRobotX[i] + c * mTagRobotY[i] + shift.y();
+			}
+			mRobotX[i] = mTagFieldX[i] - (cos * tagX - sin * tagY);
+			mRobotY[i] = mTagFieldY[i] - (sin * tagX + cos * tagY);
+		}
+
+		weightedMean(Double.POSITIVE_INFINITY, 0.0, 0.0, mSolution);
+		if (mCount > 2) {
+			weightedMean(kOutlierSigmas, mSolution[0], mSolution[1], mSolution);
+		}
+
+		double residualSum = 0.0;
+		double areaSum = 0.0;
+		int best = 0;
+		for (int i = 0; i < mCount; i++) {
+			double dx = mRobotX[i] - mSolution[0];
+			double dy = mRobotY[i] - mSolution[1];
+			residualSum += dx * dx + dy * dy;
+			areaSum += mTagArea[i];
+			if (mStdDev[i] < mStdDev[best]) {
+				best = i;
+			}
+		}
+		mResidualRms = Math.sqrt(residualSum / mCount);
+
+		return Optional.of(new VisionUpdate(mTagId[best], mLatestTimestamp, areaSum / mCount,
+				new Translation2d(mSolution[0], mSolution[1]), mSolution[2], kCameraName));
+	}
+
+	/**
+	 * Inverse-variance weighted mean of the per-observation robot positions,
+	 * skipping those farther than the gate from a previous solution.
+	 *
+	 * @param gateSigmas how many std devs from the previous solution to keep
+	 * @param previousX  the previous solution x
+	 * @param previousY  the previous solution y
+	 * @param out        filled with x, y and the std dev of the mean
+	 */
+	private void weightedMean(double gateSigmas, double previousX, double previousY, double[] out) {
+		double weightSum = 0.0;
+		double x = 0.0;
+		double y = 0.0;
+		for (int i = 0; i < mCount; i++) {
+			if (Math.hypot(mRobotX[i] - previousX, mRobotY[i] - previousY) > gateSigmas * mStdDev[i]) {
+				continue;
+			}
+			double weight = 1.0 / (mStdDev[i] * mStdDev[i]);
+			weightSum += weight;
+			x += weight * mRobotX[i];
+			y += weight * mRobotY[i];
+		}
+		// Everything was gated out, keep the previous solution
+		if (weightSum == 0.0) {
+			return;
+		}
+		out[0] = x / weightSum;
+		out[1] = y / weightSum;
+		out[2] = Math.sqrt(1.0 / weightSum);
+	}
+
+	/**
+	 * @return Number of tag observations added since the last reset.
+	 */
+	public int getObservationCount() {
+		return mCount;
+	}
+
+	/**
+	 * @return Number of camera frames that contributed observations.
+	 */
+	public int getFrameCount() {
+		return mFrameCount;
+	}
+
+	/**
+	 * @return RMS distance of the per-observation positions from the last solve.
+	 */
+	public double getResidualRms() {
+		return mResidualRms;
+	}
+}
@@ -0,0 +1,65 @@
+package com.team5817.frc2025.subsystems.vision;
+
+import java.util.List;
+
+import org.littletonrobotics.junction.Logger;
+
+import com.team5817.lib.drivers.Pigeon.GyroState;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Sends the robot orientation MegaTag2 solves against to every Limelight. All
+ * cameras get the same gyro sample in one NetworkTables flush, instead of each
+ * camera publishing on its own whenever NetworkTables next sends.
+ */
+public class RobotOrientationBroadcaster {
+	private final List<LimelightHandle> mHandles;
+	private final NetworkTableInstance mInstance;
+
+	private double mLastPublishDelay = 0.0;
+
+	/**
+	 * Constructs a broadcaster on the default NetworkTables instance.
+	 *
+	 * @param handles the cameras to publish to
+	 */
+	public RobotOrientationBroadcaster(List<LimelightHandle> handles) {
+		this(handles, NetworkTableInstance.getDefault());
+	}
+
+	/**
+	 * Constructs a broadcaster.
+	 *
+	 * @param handles  the cameras to publish to
+	 * @param instance the NetworkTables instance the handles were created on
+	 */
+	public RobotOrientationBroadcaster(List<LimelightHandle> handles, NetworkTableInstance instance) {
+		mHandles = handles;
+		mInstance = instance;
+	}
+
+	/**
+	 * Publishes the yaw and yaw rate from one gyro sample to every camera and
+	 * flushes immediately.
+	 *
+	 * @param state the gyro sample captured this loop
+	 */
+	public void publish(GyroState state) {
+		for (LimelightHandle handle : mHandles) {
+			handle.publishRobotOrientation(state.yawDegrees, state.yawRateDegreesPerSecond, 0, 0, 0, 0);
+		}
+		mInstance.flush();
+		mLastPublishDelay = Timer.getFPGATimestamp() - state.sampleTimestamp;
+		Logger.recordOutput("Vision/Orientation Publish Delay", mLastPublishDelay);
+	}
+
+	/**
+	 * @return Seconds from the sensor measuring the yaw to the flush on the last
+	 *         publish.
+	 */
+	public double getLastPublishDelay() {
+		return mLastPublishDelay;
+	}
+}
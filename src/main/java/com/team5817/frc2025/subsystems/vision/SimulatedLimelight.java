@@ -0,0 +1,236 @@
+package com.team5817.frc2025.subsystems.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.team5817.frc2025.Constants.PoseEstimatorConstants;
+import com.team5817.frc2025.field.FieldLayout;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.interpolation.TimeInterpolatableBuffer;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Stands in for a Limelight in simulation. Each frame it finds the field tags
+ * the camera can see from the ground truth robot pose, then publishes the
+ * same topics a real Limelight running MegaTag2 would, so the whole vision
+ * path runs unchanged.
+ * <p>
+ * A tag is seen when it faces the camera and lies inside the field of view
+ * and range in the camera's {@link VisionDeviceConstants}. The published pose
+ * is the ground truth at capture time, i.e. one latency ago, plus noise that
+ * grows with the distance to the tags.
+ */
+public class SimulatedLimelight {
+	private static final double kTagSizeMeters = Units.inchesToMeters(6.5);
+	private static final double kPoseHistorySeconds = 1.0;
+	private static final int kValuesPerFiducial = 7;
+
+	private final VisionDeviceConstants mConstants;
+	private final Random mRandom = new Random();
+
+	private final DoubleArrayPublisher mBotPoseMegaTag2;
+	private final DoubleArrayPublisher mBotPoseMegaTag1;
+	private final DoubleArrayPublisher mRawFiducials;
+	private final DoublePublisher mTagId;
+	private final DoublePublisher mHasTarget;
+	private final DoublePublisher mPipelineLatency;
+	private final DoublePublisher mCaptureLatency;
+	private final DoublePublisher mFpsPublisher;
+	private final DoublePublisher mHeartbeat;
+
+	private final TimeInterpolatableBuffer<Pose2d> mPoseHistory = TimeInterpolatableBuffer
+			.createBuffer(kPoseHistorySeconds);
+	private final List<double[]> mVisibleFiducials = new ArrayList<>();
+	private final List<Translation3d> mVisibleTagTranslations = new ArrayList<>();
+
+	private double mTranslationStdDevPerMeter = PoseEstimatorConstants.kSimVisionTranslationStdDevPerMeter;
+	private double mRotationStdDevDegrees = PoseEstimatorConstants.kSimVisionRotationStdDevDegrees;
+	private double mCaptureLatencyMs = PoseEstimatorConstants.kSimVisionCaptureLatencyMs;
+	private double mPipelineLatencyMs = PoseEstimatorConstants.kSimVisionPipelineLatencyMs;
+	private double mFps = PoseEstimatorConstants.kSimVisionFps;
+
+	private double mLastFrameTimestamp = Double.NEGATIVE_INFINITY;
+	private long mFrameCount = 0;
+
+	/**
+	 * Constructs a simulated camera on the default NetworkTables instance.
+	 *
+	 * @param constants the camera to simulate
+	 */
+	public SimulatedLimelight(VisionDeviceConstants constants) {
+		this(constants, NetworkTableInstance.getDefault());
+	}
+
+	/**
+	 * Constructs a simulated camera.
+	 *
+	 * @param constants the camera to simulate
+	 * @param instance  the NetworkTables instance to publish to
+	 */
+	public SimulatedLimelight(VisionDeviceConstants constants, NetworkTableInstance instance) {
+		mConstants = constants;
+		NetworkTable table = instance.getTable(constants.kTableName);
+
+		mBotPoseMegaTag2 = table.getDoubleArrayTopic("botpose_orb_wpiblue").publish();
+		mBotPoseMegaTag1 = table.getDoubleArrayTopic("botpose_wpiblue").publish();
+		mRawFiducials = table.getDoubleArrayTopic("rawfiducials").publish();
+		mTagId = table.getDoubleTopic("tid").publish();
+		mHasTarget = table.getDoubleTopic("tv").publish();
+		mPipelineLatency = table.getDoubleTopic("tl").publish();
+		mCaptureLatency = table.getDoubleTopic("cl").publish();
+		mFpsPublisher = table.getDoubleTopic("fps").publish();
+		mHeartbeat = table.getDoubleTopic("hb").publish();
+	}
+
+	/**
+	 * Sets the noise added to the published pose.
+	 *
+	 * @param translationStdDevPerMeter translation std dev per meter of average
+	 *                                  tag distance
+	 * @param rotationStdDevDegrees     heading std dev in degrees
+	 */
+	public void setNoise(double translationStdDevPerMeter, double rotationStdDevDegrees) {
+		mTranslationStdDevPerMeter = translationStdDevPerMeter;
+		mRotationStdDevDegrees = rotationStdDevDegrees;
+	}
+
+	/**
+	 * Sets the simulated latency.
+	 *
+	 * @param captureLatencyMs  image capture latency in milliseconds
+	 * @param pipelineLatencyMs pipeline latency in milliseconds
+	 */
+	public void setLatency(double captureLatencyMs, double pipelineLatencyMs) {
+		mCaptureLatencyMs = captureLatencyMs;
+		mPipelineLatencyMs = pipelineLatencyMs;
+	}
+
+	/**
+	 * Sets the frame rate. Frames are only produced when {@link #update} is
+	 * called, so the effective rate is capped by the caller's loop rate.
+	 *
+	 * @param fps frames per second
+	 */
+	public void setFps(double fps) {
+		mFps = fps;
+	}
+
+	/**
+	 * Records the ground truth pose and publishes a frame if one is due.
+	 *
+	 * @param groundTruth the simulated robot pose
+	 * @param timestamp   the current timestamp in seconds
+	 */
+	public void update(Pose2d groundTruth, double timestamp) {
+		mPoseHistory.addSample(timestamp, groundTruth);
+		if (timestamp - mLastFrameTimestamp < 1.0 / mFps) {
+			return;
+		}
+		mLastFrameTimestamp = timestamp;
+
+		double latencyMs = mCaptureLatencyMs + mPipelineLatencyMs;
+		Pose2d capturedPose = mPoseHistory.getSample(timestamp - latencyMs / 1000.0).orElse(groundTruth);
+		Pose3d robotPose = new Pose3d(capturedPose);
+		Pose3d cameraPose = robotPose.transformBy(mConstants.kRobotToCamera);
+
+		findVisibleTags(robotPose, cameraPose);
+		int tagCount = mVisibleFiducials.size();
+
+		double avgDist = 0.0;
+		double avgArea = 0.0;
+		for (double[] fiducial : mVisibleFiducials) {
+			avgDist += fiducial[4];
+			avgArea += fiducial[3];
+		}
+		double span = 0.0;
+		for (int i = 0; i < tagCount; i++) {
+			for (int j = i + 1; j < tagCount; j++) {
+				span = Math.max(span, mVisibleTagTranslations.get(i).getDistance(mVisibleTagTranslations.get(j)));
+			}
+		}
+
+		double[] botpose = new double[11 + kValuesPerFiducial * tagCount];
+		double[] rawFiducials = new double[kValuesPerFiducial * tagCount];
+		if (tagCount > 0) {
+			avgDist /= tagCount;
+			avgArea /= tagCount;
+			double translationStdDev = mTranslationStdDevPerMeter * avgDist;
+			botpose[0] = capturedPose.getX() + mRandom.nextGaussian() * translationStdDev;
+			botpose[1] = capturedPose.getY() + mRandom.nextGaussian() * translationStdDev;
+			botpose[5] = capturedPose.getRotation().getDegrees() + mRandom.nextGaussian() * mRotationStdDevDegrees;
+			for (int i = 0; i < tagCount; i++) {
+				System.arraycopy(mVisibleFiducials.get(i), 0, botpose, 11 + kValuesPerFiducial * i,
+						kValuesPerFiducial);
+				System.arraycopy(mVisibleFiducials.get(i), 0, rawFiducials, kValuesPerFiducial * i,
+						kValuesPerFiducial);
+			}
+		}
+		botpose[6] = latencyMs;
+		botpose[7] = tagCount;
+		botpose[8] = span;
+		botpose[9] = avgDist;
+		botpose[10] = avgArea;
+
+		mFrameCount++;
+		mBotPoseMegaTag2.set(botpose);
+		mBotPoseMegaTag1.set(botpose);
+		mRawFiducials.set(rawFiducials);
+		mTagId.set(tagCount > 0 ? mVisibleFiducials.get(0)[0] : -1);
+		mHasTarget.set(tagCount > 0 ? 1.0 : 0.0);
+		mPipelineLatency.set(mPipelineLatencyMs);
+		mCaptureLatency.set(mCaptureLatencyMs);
+		mFpsPublisher.set(mFps);
+		mHeartbeat.set(mFrameCount);
+	}
+
+	/**
+	 * Fills the visible fiducials in the Limelight raw fiducial layout: id, txnc,
+	 * tync, ta, distance to camera, distance to robot, ambiguity.
+	 */
+	private void findVisibleTags(Pose3d robotPose, Pose3d cameraPose) {
+		mVisibleFiducials.clear();
+		mVisibleTagTranslations.clear();
+		double halfHorizontalFov = Math.toRadians(mConstants.kHorizontalFovDegrees) / 2.0;
+		double halfVerticalFov = Math.toRadians(mConstants.kVerticalFovDegrees) / 2.0;
+
+		for (AprilTag tag : FieldLayout.kTagMap.getTags()) {
+			// Tags face along their +x axis, the camera must be in front of the tag
+			if (cameraPose.relativeTo(tag.pose).getX() <= 0.0) {
+				continue;
+			}
+			Translation3d cameraToTag = tag.pose.relativeTo(cameraPose).getTranslation();
+			double distance = cameraToTag.getNorm();
+			if (cameraToTag.getX() <= 0.0 || distance > mConstants.kMaxTagDistanceMeters) {
+				continue;
+			}
+			double yaw = Math.atan2(cameraToTag.getY(), cameraToTag.getX());
+			double pitch = Math.atan2(cameraToTag.getZ(), cameraToTag.getX());
+			if (Math.abs(yaw) > halfHorizontalFov || Math.abs(pitch) > halfVerticalFov) {
+				continue;
+			}
+
+			// Share of the image the tag covers, in percent
+			double area = 100.0 * (kTagSizeMeters * kTagSizeMeters) / (distance * distance)
+					/ (4.0 * Math.tan(halfHorizontalFov) * Math.tan(halfVerticalFov));
+			mVisibleFiducials.add(new double[] {
+					tag.ID,
+					-Math.toDegrees(yaw), // Limelight tx is positive to the right
+					Math.toDegrees(pitch),
+					area,
+					distance,
+					tag.pose.getTranslation().getDistance(robotPose.getTranslation()),
+					Math.min(1.0, 0.02 * distance)
+			});
+			mVisibleTagTranslations.add(tag.pose.getTranslation());
+		}
+	}
+}
@@ -1,13 +1,16 @@
 package com.team5817.frc2025.subsystems.vision;
 
+import com.team5817.frc2025.RobotState;
 import com.team5817.frc2025.Constants.PoseEstimatorConstants;
 import com.team5817.frc2025.RobotState.VisionUpdate;
 import com.team5817.frc2025.subsystems.vision.LimelightHelpers.PoseEstimate;
-import com.team5817.lib.drivers.Pigeon;
+import com.team5817.frc2025.subsystems.vision.LimelightHelpers.RawFiducial;
+import com.team5817.lib.util.BoundedSpscQueue;
 import com.team254.lib.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
-import edu.wpi.first.networktables.NetworkTable;
-import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.Arrays;
 import java.util.Optional;
 
 import org.littletonrobotics.junction.AutoLog;
@@ -21,7 +24,41 @@ public class VisionDevice {
 	public Optional<VisionUpdate> visionUpdate = Optional.empty();
 
 	public String mName;
-	private NetworkTable mOutputTable;
+	private final VisionDeviceConstants mConstants;
+	private final LimelightHandle mHandle;
+	private final CameraHealthMonitor mHealth;
+
+	/**
+	 * The newest accepted frame, published by {@link #ingest} for the control
+	 * loop.
+	 */
+	private static class LatestFrame {
+		final PoseEstimate estimate;
+		final VisionUpdate update;
+		final double ambiguity;
+
+		LatestFrame(PoseEstimate estimate, VisionUpdate update, double ambiguity) {
+			this.estimate = estimate;
+			this.update = update;
+			this.ambiguity = ambiguity;
+		}
+	}
+
+	// Written by the ingesting thread only
+	private volatile LatestFrame mLatestFrame = null;
+	private volatile long mFramesSeen = 0;
+	private volatile long mFramesWithTargets = 0;
+	private volatile long mFramesRejected = 0;
+	private volatile long mDuplicateFrames = 0;
+	private volatile long mHeartbeat = -1;
+
+	// Ingesting thread state, identifies the last frame handed to the control loop
+	private double mLastFusedTimestamp = Double.NEGATIVE_INFINITY;
+	private double[] mLastFusedValues = null;
+
+	// Control loop state
+	private LatestFrame mLastConsumedFrame = null;
+	private PoseEstimate mNewEstimate = null;
 
 	/**
 	 * Constructor for VisionDevice.
@@ -29,49 +66,206 @@ public class VisionDevice {
 	 * @param name the name of the vision device
 	 */
 	public VisionDevice(String name) {
+		this(name, new VisionDeviceConstants());
+	}
+
+	/**
+	 * Constructor for VisionDevice.
+	 *
+	 * @param constants the vision device's table name and extrinsics
+	 */
+	public VisionDevice(VisionDeviceConstants constants) {
+		this(constants.kTableName, constants);
+	}
+
+	private VisionDevice(String name, VisionDeviceConstants constants) {
 		this.mName = name;
-		mOutputTable = NetworkTableInstance.getDefault().getTable(name);
+		mConstants = constants;
+		mHandle = new LimelightHandle(name);
+		mHealth = new CameraHealthMonitor(name);
+
+
+	}
+
+	/**
+	 * Parses every frame published since the last call, pre-validates it and
+	 * hands the resulting vision updates to the control loop. Safe to call from
+	 * the vision ingestion thread; does not touch the logger.
+	 *
+	 * @param queue the queue drained by the control loop
+	 */
+	public void ingest(BoundedSpscQueue<VisionUpdate> queue) {
+		TimestampedDoubleArray[] frames = mHandle.readMegaTag2Queue();
+		long heartbeat = mHandle.getHeartbeat();
+		long serverTimeOffset = mHandle.getServerTimeOffsetMicros();
+		mFramesSeen += frames.length;
+		mHeartbeat = heartbeat;
 
+		for (TimestampedDoubleArray frame : frames) {
+			PoseEstimate poseEstimate = LimelightHelpers.toPoseEstimate(frame, true, serverTimeOffset);
+			if (poseEstimate == null) {
+				continue;
+			}
+			mHealth.recordFrame(poseEstimate.timestampSeconds, poseEstimate.latency, poseEstimate.tagCount,
+					Timer.getTimestamp());
+			if (poseEstimate.tagCount == 0 || poseEstimate.pose.getTranslation().getNorm() == 0) {
+				continue;
+			}
+			mFramesWithTargets++;
+			if (!Double.isFinite(poseEstimate.pose.getX()) || !Double.isFinite(poseEstimate.pose.getY())
+					|| !Double.isFinite(poseEstimate.timestampSeconds)) {
+				mFramesRejected++;
+				continue;
+			}
+			if (isDuplicate(frame, poseEstimate)) {
+				mDuplicateFrames++;
+				continue;
+			}
+			mLastFusedTimestamp = poseEstimate.timestampSeconds;
+			mLastFusedValues = frame.value;
 
+			double ambiguity = averageAmbiguity(poseEstimate);
+			double stdDev = computeStdDev(poseEstimate.tagCount, poseEstimate.avgTagDist, ambiguity);
+			int tagId = poseEstimate.rawFiducials.length > 0 && poseEstimate.rawFiducials[0] != null
+					? poseEstimate.rawFiducials[0].id
+					: -1;
+			VisionUpdate update = new VisionUpdate(tagId, poseEstimate.timestampSeconds, poseEstimate.avgTagArea,
+					new Pose2d(poseEstimate.pose).getTranslation(), stdDev, mName);
+			queue.offer(update);
+			mLatestFrame = new LatestFrame(poseEstimate, update, ambiguity);
+		}
+	}
+
+	/**
+	 * Checks whether a frame repeats the last one handed to the control loop. The
+	 * Limelight republishes its last result when it stalls, which gets a fresh
+	 * NetworkTables timestamp but the same values.
+	 * <p>
+	 * The heartbeat is deliberately not used here. It is read once per batch, so
+	 * a frame published just before it would look like a repeat and be lost; it
+	 * only feeds the health monitor's stall detection.
+	 *
+	 * @param frame        the raw MegaTag2 frame
+	 * @param poseEstimate the parsed frame
+	 * @return true if the frame should be skipped
+	 */
+	private boolean isDuplicate(TimestampedDoubleArray frame, PoseEstimate poseEstimate) {
+		if (poseEstimate.timestampSeconds <= mLastFusedTimestamp) {
+			return true;
+		}
+		return Arrays.equals(frame.value, mLastFusedValues);
 	}
 
 	/**
-	 * Updates the vision device with the latest data.
+	 * Publishes the newest frame since the last tick to the logs and sends the
+	 * robot orientation. Control loop only.
 	 *
 	 * @param timestamp the current timestamp
 	 */
 	public void update(double timestamp) {
-
-		PoseEstimate poseEstimate = LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(mName);
-		mPeriodicIO.seesTarget = false;
-		if(poseEstimate!=null)
-			mPeriodicIO.seesTarget = poseEstimate.pose.getTranslation().getNorm() != 0 && LimelightHelpers.getTV(mName);
+		LatestFrame latest = mLatestFrame;
+		mPeriodicIO.seesTarget = latest != null && latest != mLastConsumedFrame;
+		mLastConsumedFrame = latest;
+		mNewEstimate = mPeriodicIO.seesTarget ? latest.estimate : null;
+		mPeriodicIO.hb = mHeartbeat;
+		mHealth.update(timestamp, mPeriodicIO.hb);
+		mPeriodicIO.is_connected = mHealth.getState() != CameraHealthMonitor.State.LOST;
 		if (mPeriodicIO.seesTarget) {
-			final double realTime = timestamp - mPeriodicIO.latency;
-			mPeriodicIO.fps = mOutputTable.getEntry("fps").getInteger(0);
-			mPeriodicIO.latency = mOutputTable.getEntry("latency").getDouble(0.0);
-			mPeriodicIO.tagId = mOutputTable.getEntry("tid").getNumber(-1).intValue();
-
-			mPeriodicIO.mt1Pose = new Pose2d(LimelightHelpers.getBotPose2d_wpiBlue(mName));
-			mPeriodicIO.targetToCamera = LimelightHelpers.getTargetPose3d_CameraSpace(mName);
-			mPeriodicIO.tagCounts = poseEstimate.tagCount;
-			mPeriodicIO.mt2Pose = new Pose2d(poseEstimate.pose);
-
-			VisionUpdate visionUpdate = new VisionUpdate(mPeriodicIO.tagId, realTime, mPeriodicIO.ta,
-					mPeriodicIO.mt2Pose.getTranslation());
+			PoseEstimate latestEstimate = latest.estimate;
+			mPeriodicIO.fps = (long) mHandle.getFps();
+			mPeriodicIO.latency = latestEstimate.latency;
+			mPeriodicIO.tagId = latest.update.getID();
+			mPeriodicIO.ta = latestEstimate.avgTagArea;
+			mPeriodicIO.ambiguity = latest.ambiguity;
+			mPeriodicIO.stdDev = latest.update.getStdDev();
+
+			mPeriodicIO.mt1Pose = new Pose2d(mHandle.getMegaTag1Pose());
+			mPeriodicIO.targetToCamera = mHandle.getTargetPoseCameraSpace();
+			mPeriodicIO.tagCounts = latestEstimate.tagCount;
+			mPeriodicIO.mt2Pose = new Pose2d(latestEstimate.pose);
+			mPeriodicIO.avgTagDist = latestEstimate.avgTagDist;
+
 					Logger.recordOutput(mName+"/ID", mPeriodicIO.tagId);
 					Logger.recordOutput(mName+"/Specialized", PoseEstimatorConstants.redTagIDFilters.contains( mPeriodicIO.tagId));
-			this.visionUpdate = Optional.of(visionUpdate);
+			this.visionUpdate = Optional.of(latest.update);
 
 		} else {
 			this.visionUpdate = Optional.empty();
 		}
-		LimelightHelpers.SetRobotOrientation(mName, Pigeon.getInstance().getYaw().getDegrees(), 0, 0, 0, 0, 0);
 		Logger.recordOutput(mName+"/mt1", mPeriodicIO.mt1Pose.wpi());
 	}
 
 
 
+	/**
+	 * Averages the ambiguity of the tags behind a pose estimate.
+	 *
+	 * @param poseEstimate the MegaTag2 pose estimate
+	 * @return the mean ambiguity, 0 if no raw fiducials were reported
+	 */
+	private static double averageAmbiguity(PoseEstimate poseEstimate) {
+		if (poseEstimate.rawFiducials == null || poseEstimate.rawFiducials.length == 0) {
+			return 0.0;
+		}
+		double sum = 0.0;
+		int count = 0;
+		for (RawFiducial fiducial : poseEstimate.rawFiducials) {
+			// Left null when the array didn't match the tag count
+			if (fiducial != null) {
+				sum += fiducial.ambiguity;
+				count++;
+			}
+		}
+		return count == 0 ? 0.0 : sum / count;
+	}
+
+	/**
+	 * Scales the vision standard deviation by how trustworthy the estimate is:
+	 * more tags tighten it, distance and ambiguity loosen it.
+	 *
+	 * @param tagCount   number of tags in the estimate
+	 * @param avgTagDist average distance to the tags in meters
+	 * @param ambiguity  average tag ambiguity
+	 * @return the standard deviation of the translation in meters
+	 */
+	public static double computeStdDev(int tagCount, double avgTagDist, double ambiguity) {
+		return PoseEstimatorConstants.kVisionBaseStdDev
+				* (1.0 + PoseEstimatorConstants.kVisionDistanceStdDevCoefficient * avgTagDist * avgTagDist)
+				* (1.0 + PoseEstimatorConstants.kVisionAmbiguityStdDevCoefficient * ambiguity)
+				/ Math.sqrt(Math.max(tagCount, 1));
+	}
+
+	/**
+	 * Gets the newest frame picked up by the last {@link #update}.
+	 *
+	 * @return the frame, or null if no new frame arrived since the tick before
+	 */
+	public PoseEstimate getNewEstimate() {
+		return mNewEstimate;
+	}
+
+	public VisionDeviceConstants getConstants() {
+		return mConstants;
+	}
+
+	/**
+	 * Gets the health of this camera as of the last {@link #update}.
+	 *
+	 * @return the health monitor
+	 */
+	public CameraHealthMonitor getHealth() {
+		return mHealth;
+	}
+
+	/**
+	 * Gets the NetworkTables handle for this camera.
+	 *
+	 * @return the handle
+	 */
+	public LimelightHandle getHandle() {
+		return mHandle;
+	}
+
 	/**
 	 * Gets the latest vision update.
 	 *
@@ -86,6 +280,13 @@ public class VisionDevice {
 	 * Outputs telemetry data.
 	 */
 	public void outputTelemetry() {
+		Logger.recordOutput(mName + "/Frames Seen", mFramesSeen);
+		Logger.recordOutput(mName + "/Frames With Targets", mFramesWithTargets);
+		Logger.recordOutput(mName + "/Frames Rejected", mFramesRejected);
+		Logger.recordOutput(mName + "/Duplicate Frames", mDuplicateFrames);
+		Logger.recordOutput(mName + "/Heartbeat", mPeriodicIO.hb);
+		mHealth.outputTelemetry();
+		Logger.recordOutput(mName + "/Frames Fused", RobotState.getInstance().getFusedFrameCount(mName));
 	}
 
 	/**
@@ -110,6 +311,9 @@ public class VisionDevice {
 		public double ta = 0;
 		public boolean useVision = true;
 		public double tagCounts = 0;
+		public double avgTagDist = 0;
+		public double ambiguity = 0;
+		public double stdDev = 0;
 		public Pose2d mt2Pose = new Pose2d();
 		public Pose2d mt1Pose = new Pose2d();
 		public Pose3d targetToCamera = new Pose3d();
@@ -30,4 +30,19 @@ public class VisionDeviceConstants {
 	 * The height of the camera resolution.
 	 */
 	public int kCameraResolutionHeight = 1200;
+
+	/**
+	 * The horizontal field of view in degrees.
+	 */
+	public double kHorizontalFovDegrees = 82.0;
+
+	/**
+	 * The vertical field of view in degrees.
+	 */
+	public double kVerticalFovDegrees = 56.2;
+
+	/**
+	 * The farthest a tag can be and still be detected, in meters.
+	 */
+	public double kMaxTagDistanceMeters = 5.0;
 }
@@ -5,8 +5,11 @@ import com.team5817.frc2025.RobotState;
 import com.team5817.frc2025.Constants.PoseEstimatorConstants;
 import com.team5817.frc2025.RobotState.VisionUpdate;
 import com.team5817.frc2025.loops.ILooper;
+import com.team5817.frc2025.subsystems.Drive.Drive;
 import com.team5817.frc2025.loops.Loop;
+import com.team5817.lib.drivers.Pigeon;
 import com.team5817.lib.drivers.Subsystem;
+import com.team5817.lib.util.BoundedSpscQueue;
 import com.team254.lib.geometry.Pose2d;
 import com.team254.lib.geometry.Rotation2d;
 import com.team254.lib.geometry.Translation2d;
@@ -19,7 +22,11 @@ import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.littletonrobotics.junction.Logger;
 
@@ -51,6 +58,17 @@ public class VisionDeviceManager extends Subsystem {
 	private RobotState mRobotState;
 
 	private List<VisionDevice> mAllCameras;
+	// Camera measurements for this tick, fused together
+	private final List<VisionUpdate> mVisionBatch = new ArrayList<>();
+	private static final int kVisionQueueCapacity = 64;
+	private final BoundedSpscQueue<VisionUpdate> mVisionQueue = new BoundedSpscQueue<>(kVisionQueueCapacity);
+	private VisionIngestThread mIngestThread = null;
+	private final Map<String, VisionDevice> mCamerasByName = new HashMap<>();
+	private long mUntrustedUpdates = 0;
+	private final MultiCameraFiducialSolver mFiducialSolver = new MultiCameraFiducialSolver();
+	private final RobotOrientationBroadcaster mOrientationBroadcaster;
+	// Only populated in simulation
+	private final List<SimulatedLimelight> mSimulatedCameras = new ArrayList<>();
 
 	private static double timestampOffset = 0.1;
 
@@ -64,12 +82,29 @@ public class VisionDeviceManager extends Subsystem {
 	 * Constructor for VisionDeviceManager.
 	 */
 	public VisionDeviceManager() {
-		mRightCamera = new VisionDevice("limelight-right");
-		mLeftCamera = new VisionDevice("limelight-left");
-		mUpCamera = new VisionDevice("limelight-up");
+		mRightCamera = new VisionDevice(PoseEstimatorConstants.kRightVisionDevice);
+		mLeftCamera = new VisionDevice(PoseEstimatorConstants.kLeftVisionDevice);
+		mUpCamera = new VisionDevice(PoseEstimatorConstants.kUpVisionDevice);
 
 		mAllCameras = List.of(mRightCamera, mLeftCamera, mUpCamera);
+		for (VisionDevice device : mAllCameras) {
+			mCamerasByName.put(device.mName, device);
+		}
 		mRobotState = RobotState.getInstance();
+		mOrientationBroadcaster = new RobotOrientationBroadcaster(
+				List.of(mRightCamera.getHandle(), mLeftCamera.getHandle(), mUpCamera.getHandle()));
+
+		if (Constants.mode == Constants.Mode.SIM) {
+			mSimulatedCameras.add(new SimulatedLimelight(PoseEstimatorConstants.kRightVisionDevice));
+			mSimulatedCameras.add(new SimulatedLimelight(PoseEstimatorConstants.kLeftVisionDevice));
+			mSimulatedCameras.add(new SimulatedLimelight(PoseEstimatorConstants.kUpVisionDevice));
+		}
+
+		// On the robot frames are parsed off the control loop as they arrive
+		if (Constants.mode == Constants.Mode.REAL) {
+			mIngestThread = new VisionIngestThread(mAllCameras, mVisionQueue);
+			mIngestThread.start();
+		}
 	}
 
 	/**
@@ -96,21 +131,79 @@ public class VisionDeviceManager extends Subsystem {
 	 */
 	@Override
 	public void readPeriodicInputs() {
-		if ( Constants.mode == Constants.Mode.SIM) {
-			RobotState.getInstance().addVisionUpdate(new VisionUpdate(1, Timer.getTimestamp(), 1.0,
-					RobotState.getInstance().getPoseFromOdom(Timer.getTimestamp()).getTranslation()));
-		} else {
+		// Drive reads the gyro before us, send it before anything else
+		mOrientationBroadcaster.publish(Pigeon.getInstance().getState());
+
+		for (SimulatedLimelight camera : mSimulatedCameras) {
+			camera.update(Drive.driveSimulation.getSimulatedDriveTrainPose(), Timer.getTimestamp());
+		}
 
+		if (mIngestThread == null) {
 			for (VisionDevice device : mAllCameras) {
-				device.update(Timer.getTimestamp());
-				if (!device.getVisionUpdate().isEmpty()) {
-					VisionUpdate update = device.getVisionUpdate().get();
-					RobotState.getInstance().addVisionUpdate(update);
-					if (update.getTimestamp() > timeOfLastUpdate)
-						timeOfLastUpdate = update.getTimestamp();
-				}
+				device.ingest(mVisionQueue);
+			}
+		}
+
+		Logger.recordOutput("Vision/Queue Depth", mVisionQueue.size());
+		Logger.recordOutput("Vision/Dropped Updates", mVisionQueue.getDroppedCount());
+		for (VisionDevice device : mAllCameras) {
+			device.update(Timer.getTimestamp());
+		}
+
+		mVisionBatch.clear();
+		VisionUpdate update;
+		while ((update = mVisionQueue.poll()) != null) {
+			// Trust cameras less as their health drops, and not at all once lost
+			CameraHealthMonitor health = mCamerasByName.get(update.getCameraName()).getHealth();
+			if (health.getState() == CameraHealthMonitor.State.LOST) {
+				mUntrustedUpdates++;
+				continue;
+			}
+			if (health.getState() == CameraHealthMonitor.State.DEGRADED) {
+				update = new VisionUpdate(update.getID(), update.getTimestamp(), update.getTa(),
+						update.getFieldToVision(), update.getStdDev() * health.getStdDevScale(),
+						update.getCameraName());
 			}
+			mVisionBatch.add(update);
+			if (update.getTimestamp() > timeOfLastUpdate)
+				timeOfLastUpdate = update.getTimestamp();
 		}
+		Logger.recordOutput("Vision/Untrusted Updates", mUntrustedUpdates);
+
+		if (PoseEstimatorConstants.kUseMultiCameraSolve) {
+			Optional<VisionUpdate> solved = solveFromFiducials();
+			if (solved.isPresent()) {
+				mVisionBatch.clear();
+				mVisionBatch.add(solved.get());
+			}
+		}
+		RobotState.getInstance().addVisionUpdates(mVisionBatch);
+	}
+
+	/**
+	 * Solves one pose from the newest frame of every live camera and logs it.
+	 *
+	 * @return the combined measurement, or empty if no camera saw a tag
+	 */
+	private Optional<VisionUpdate> solveFromFiducials() {
+		double start = Timer.getFPGATimestamp();
+		mFiducialSolver.reset();
+		for (VisionDevice device : mAllCameras) {
+			if (device.getHealth().getState() != CameraHealthMonitor.State.LOST) {
+				mFiducialSolver.addFrame(device.getNewEstimate(), device.getConstants().kRobotToCamera);
+			}
+		}
+		Optional<VisionUpdate> solved = mFiducialSolver.solve();
+		Logger.recordOutput("Vision/MultiCamera/Solve Ms", (Timer.getFPGATimestamp() - start) * 1000.0);
+		Logger.recordOutput("Vision/MultiCamera/Observations", mFiducialSolver.getObservationCount());
+		Logger.recordOutput("Vision/MultiCamera/Frames", mFiducialSolver.getFrameCount());
+		if (solved.isPresent()) {
+			Logger.recordOutput("Vision/MultiCamera/Residual RMS", mFiducialSolver.getResidualRms());
+			Logger.recordOutput("Vision/MultiCamera/Std Dev", solved.get().getStdDev());
+			Logger.recordOutput("Vision/MultiCamera/Field To Robot", Pose2d
+					.fromTranslation(solved.get().getFieldToVision()).wpi());
+		}
+		return solved;
 	}
 
 	/**
@@ -248,11 +341,16 @@ public class VisionDeviceManager extends Subsystem {
 	}
 
 	/**
-	 * Checks if the system is fully connected.
-	 * @return true if fully connected, false otherwise.
+	 * Checks if every camera is still sending frames.
+	 * @return true if no camera is lost, false otherwise.
 	 */
 	public boolean fullyConnected() {
-		return false;//TODO
+		for (VisionDevice device : mAllCameras) {
+			if (device.getHealth().getState() == CameraHealthMonitor.State.LOST) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -0,0 +1,62 @@
+package com.team5817.frc2025.subsystems.vision;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import com.team5817.frc2025.RobotState.VisionUpdate;
+import com.team5817.lib.util.BoundedSpscQueue;
+
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListenerPoller;
+import edu.wpi.first.util.WPIUtilJNI;
+
+/**
+ * Parses Limelight frames off the control loop. The thread sleeps until
+ * NetworkTables reports a new MegaTag2 pose from any camera, then lets every
+ * camera ingest its queued frames into a bounded queue the control loop drains
+ * once per tick.
+ */
+public class VisionIngestThread extends Thread {
+	// Wake up at least this often so a missed event can't stall ingestion
+	private static final double kWaitTimeoutSeconds = 0.1;
+
+	private final List<VisionDevice> mDevices;
+	private final BoundedSpscQueue<VisionUpdate> mQueue;
+	private final NetworkTableListenerPoller mPoller;
+
+	/**
+	 * Constructs the thread. Call {@link #start()} to begin ingesting.
+	 *
+	 * @param devices the cameras to ingest
+	 * @param queue   the queue to fill; this thread is its only producer
+	 */
+	public VisionIngestThread(List<VisionDevice> devices, BoundedSpscQueue<VisionUpdate> queue) {
+		super("VisionIngest");
+		setDaemon(true);
+		mDevices = devices;
+		mQueue = queue;
+		mPoller = new NetworkTableListenerPoller(NetworkTableInstance.getDefault());
+		for (VisionDevice device : devices) {
+			device.getHandle().addFrameListener(mPoller, EnumSet.of(NetworkTableEvent.Kind.kValueAll));
+		}
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			try {
+				WPIUtilJNI.waitForObjectTimeout(mPoller.getHandle(), kWaitTimeoutSeconds);
+				// Events only wake us, the frames themselves are read from each camera's queue
+				mPoller.readQueue();
+				for (VisionDevice device : mDevices) {
+					device.ingest(mQueue);
+				}
+			} catch (InterruptedException e) {
+				return;
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
@@ -9,15 +9,66 @@ import com.team5817.frc2025.field.FieldLayout;
 
 /**
  * This class is responsible for accepting or rejecting vision-based pose updates.
+ * One acceptor is kept per camera so accept and reject rates are reported per
+ * camera and per reason.
  */
 public class VisionPoseAcceptor {
 	private static final double kFieldBorderMargin = 0.5;
 	private static final double kMaxVisionCorrection = 2.0; // Jump from fused pose
 
+	// Chi-squared thresholds for 2 degrees of freedom
+	private static final double kInnovationDownWeightThreshold = 5.99; // 95%
+	private static final double kInnovationRejectThreshold = 9.21; // 99%
+
+	/**
+	 * Why a measurement was accepted or rejected.
+	 */
+	public enum Reason {
+		OK,
+		OUTSIDE_FIELD,
+		MAX_VELOCITY,
+		MAX_CORRECTION,
+		INNOVATION
+	}
+
 	Pose2d mLastVisionFieldToVehicle = null;
 
+	private final String mValidationKey;
+	private final String mMahalanobisKey;
+	private final String mAcceptRateKey;
+	private final String[] mReasonKeys = new String[Reason.values().length];
+	private final int[] mReasonCounts = new int[Reason.values().length];
+	private int mDownWeightedCount = 0;
+	private final String mDownWeightedKey;
+
+	private double mStdDevScale = 1.0;
+
+	/**
+	 * Constructs an acceptor that logs under "Vision".
+	 */
+	public VisionPoseAcceptor() {
+		this("Vision");
+	}
+
+	/**
+	 * Constructs an acceptor for one camera.
+	 *
+	 * @param name The camera name used in logged keys.
+	 */
+	public VisionPoseAcceptor(String name) {
+		mValidationKey = name + "/Validation";
+		mMahalanobisKey = name + "/Mahalanobis Distance Squared";
+		mAcceptRateKey = name + "/Accept Rate";
+		mDownWeightedKey = name + "/Down Weighted";
+		for (Reason reason : Reason.values()) {
+			mReasonKeys[reason.ordinal()] = name + "/Count/" + reason.name();
+		}
+	}
+
 	/**
 	 * Determines whether the vision-based pose update should be accepted.
+	 * Measurements that pass are counted once they pass
+	 * {@link #shouldAcceptInnovation}.
 	 *
 	 * @param timestamp The timestamp of the vision update.
 	 * @param visionFieldToVehicle The pose of the vehicle based on vision data.
@@ -43,28 +94,95 @@ public class VisionPoseAcceptor {
 		mLastVisionFieldToVehicle = visionFieldToVehicle;
 
 		// Check out of field
-		if (visionFieldToVehicle.getTranslation().x() < -kFieldBorderMargin
-				|| visionFieldToVehicle.getTranslation().x() > FieldLayout.kFieldLength + kFieldBorderMargin
-				|| visionFieldToVehicle.getTranslation().y() < -kFieldBorderMargin
-				|| visionFieldToVehicle.getTranslation().y() > FieldLayout.kFieldWidth + kFieldBorderMargin) {
-			Logger.recordOutput("Vision validation", "Outside field");
-			return false;
+		double x = visionFieldToVehicle.getTranslation().x();
+		double y = visionFieldToVehicle.getTranslation().y();
+		if (x < -kFieldBorderMargin
+				|| x > FieldLayout.kFieldLength + kFieldBorderMargin
+				|| y < -kFieldBorderMargin
+				|| y > FieldLayout.kFieldWidth + kFieldBorderMargin) {
+			return record(Reason.OUTSIDE_FIELD);
 		}
 
 		if (robotVelocity.norm() > 4.0) {
-			Logger.recordOutput("Vision validation", "Max velocity");
-			return false;
+			return record(Reason.MAX_VELOCITY);
 		}
 
 		if (isInAuto) {
 			// Check max correction
-			if (visionFieldToVehicle.distance(lastFieldToVehicle) > kMaxVisionCorrection) {
-				Logger.recordOutput("Vision validation", "Max correction");
-				return false;
+			double dx = x - lastFieldToVehicle.getTranslation().x();
+			double dy = y - lastFieldToVehicle.getTranslation().y();
+			if (dx * dx + dy * dy > kMaxVisionCorrection * kMaxVisionCorrection) {
+				return record(Reason.MAX_CORRECTION);
 			}
 		}
 
-		Logger.recordOutput("Vision validation", "OK");
 		return true;
 	}
+
+	/**
+	 * Gates a measurement on its innovation against the filter's current
+	 * uncertainty. The squared Mahalanobis distance d² = νᵀ S⁻¹ ν is compared to
+	 * the chi-squared distribution: above the 99% bound the measurement is
+	 * rejected, between the 95% and 99% bounds it is kept with its standard
+	 * deviation inflated by sqrt(d² / 5.99), see {@link #getStdDevScale()}.
+	 *
+	 * @param innovationX Measurement minus estimate in x.
+	 * @param innovationY Measurement minus estimate in y.
+	 * @param sXX         Innovation covariance, x variance.
+	 * @param sXY         Innovation covariance, x-y covariance.
+	 * @param sYY         Innovation covariance, y variance.
+	 * @return true if the measurement should be fused.
+	 */
+	public boolean shouldAcceptInnovation(double innovationX, double innovationY, double sXX, double sXY, double sYY) {
+		mStdDevScale = 1.0;
+		double det = sXX * sYY - sXY * sXY;
+		if (det <= 0.0) {
+			// No usable uncertainty, nothing to gate against
+			return record(Reason.OK);
+		}
+
+		// ν^T S^-1 ν with the closed form 2x2 inverse
+		double d2 = (sYY * innovationX * innovationX - 2.0 * sXY * innovationX * innovationY
+				+ sXX * innovationY * innovationY) / det;
+		Logger.recordOutput(mMahalanobisKey, d2);
+
+		if (d2 > kInnovationRejectThreshold) {
+			return record(Reason.INNOVATION);
+		}
+		if (d2 > kInnovationDownWeightThreshold) {
+			mStdDevScale = Math.sqrt(d2 / kInnovationDownWeightThreshold);
+			mDownWeightedCount++;
+			Logger.recordOutput(mDownWeightedKey, mDownWeightedCount);
+		}
+		return record(Reason.OK);
+	}
+
+	/**
+	 * @return Factor to scale the last gated measurement's standard deviation by.
+	 */
+	public double getStdDevScale() {
+		return mStdDevScale;
+	}
+
+	/**
+	 * @param reason The reason to look up.
+	 * @return How many measurements ended with that reason.
+	 */
+	public int getCount(Reason reason) {
+		return mReasonCounts[reason.ordinal()];
+	}
+
+	private boolean record(Reason reason) {
+		int i = reason.ordinal();
+		mReasonCounts[i]++;
+		Logger.recordOutput(mValidationKey, reason.name());
+		Logger.recordOutput(mReasonKeys[i], mReasonCounts[i]);
+
+		int total = 0;
+		for (int count : mReasonCounts) {
+			total += count;
+		}
+		Logger.recordOutput(mAcceptRateKey, (double) mReasonCounts[Reason.OK.ordinal()] / total);
+		return reason == Reason.OK;
+	}
 }
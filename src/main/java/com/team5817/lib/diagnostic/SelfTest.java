@@ -0,0 +1,144 @@
+package com.team5817.lib.diagnostic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.team254.lib.drivers.MotorChecker.MotorResult;
+import com.team5817.lib.drivers.Subsystem;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Runs {@link Subsystem#checkSystem()} across the robot. Subsystems that are
+ * mechanically independent are checked at the same time, each on its own
+ * thread; the rest are checked one after another once those finish.
+ * Subsystems without a real check are reported as skipped and don't count
+ * against the overall result.
+ */
+public class SelfTest {
+
+	/**
+	 * Outcome of checking one subsystem.
+	 */
+	public static class SubsystemResult {
+		public final String mName;
+		public final boolean mPassed;
+		public final boolean mSkipped;
+		public final double mDurationSeconds;
+		public final List<MotorResult> mMotors;
+
+		public SubsystemResult(String name, boolean passed, double durationSeconds, List<MotorResult> motors) {
+			this(name, passed, false, durationSeconds, motors);
+		}
+
+		private SubsystemResult(String name, boolean passed, boolean skipped, double durationSeconds,
+				List<MotorResult> motors) {
+			mName = name;
+			mPassed = passed;
+			mSkipped = skipped;
+			mDurationSeconds = durationSeconds;
+			mMotors = motors;
+		}
+
+		public static SubsystemResult skipped(String name) {
+			return new SubsystemResult(name, false, true, 0.0, List.of());
+		}
+	}
+
+	/**
+	 * @param results The results of a run.
+	 * @return Whether every subsystem that was checked passed.
+	 */
+	public static boolean allPassed(List<SubsystemResult> results) {
+		for (SubsystemResult result : results) {
+			if (!result.mSkipped && !result.mPassed) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private final List<Subsystem> mIndependent;
+	private final List<Subsystem> mDependent;
+
+	/**
+	 * Constructs a self-test.
+	 *
+	 * @param independent Subsystems that can be checked at the same time.
+	 * @param dependent   Subsystems that must be checked one at a time.
+	 */
+	public SelfTest(List<Subsystem> independent, List<Subsystem> dependent) {
+		mIndependent = independent;
+		mDependent = dependent;
+	}
+
+	/**
+	 * Runs every check and blocks until they are done.
+	 *
+	 * @return A result per subsystem, independent subsystems first.
+	 */
+	public List<SubsystemResult> run() {
+		double start = Timer.getFPGATimestamp();
+		List<SubsystemResult> results = new ArrayList<>();
+
+		if (!mIndependent.isEmpty()) {
+			ExecutorService executor = Executors.newFixedThreadPool(mIndependent.size());
+			List<Future<SubsystemResult>> futures = new ArrayList<>();
+			for (Subsystem subsystem : mIndependent) {
+				futures.add(executor.submit(() -> check(subsystem)));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (Exception e) {
+					e.printStackTrace();
+					results.add(new SubsystemResult(name(mIndependent.get(i)), false, 0.0, List.of()));
+				}
+			}
+			executor.shutdown();
+		}
+
+		for (Subsystem subsystem : mDependent) {
+			results.add(check(subsystem));
+		}
+
+		printReport(results, Timer.getFPGATimestamp() - start);
+		return results;
+	}
+
+	private static SubsystemResult check(Subsystem subsystem) {
+		if (!subsystem.hasSystemCheck()) {
+			return SubsystemResult.skipped(name(subsystem));
+		}
+		double start = Timer.getFPGATimestamp();
+		boolean passed;
+		try {
+			passed = subsystem.checkSystem();
+		} catch (Exception e) {
+			e.printStackTrace();
+			passed = false;
+		}
+		return new SubsystemResult(name(subsystem), passed, Timer.getFPGATimestamp() - start,
+				new ArrayList<>(subsystem.getCheckResults()));
+	}
+
+	private static String name(Subsystem subsystem) {
+		return subsystem.getClass().getSimpleName();
+	}
+
+	private static void printReport(List<SubsystemResult> results, double totalSeconds) {
+		System.out.println("////////////////////////////////////////////////");
+		System.out.println("Self test finished in " + totalSeconds + " seconds");
+		for (SubsystemResult result : results) {
+			System.out.println(result.mName + (result.mSkipped ? " SKIPPED" : result.mPassed ? " PASS" : " FAIL") + " ("
+					+ result.mDurationSeconds + " s)");
+			for (MotorResult motor : result.mMotors) {
+				System.out.println("    " + motor);
+			}
+		}
+		System.out.println("////////////////////////////////////////////////");
+	}
+}
@@ -10,6 +10,7 @@ import com.ctre.phoenix6.hardware.Pigeon2;
 
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.wpilibj.Timer;
 
 import com.team254.lib.geometry.Rotation2d;
 import com.team5817.frc2025.Constants;
@@ -18,6 +19,10 @@ import com.team5817.frc2025.Ports;
 /**
  * The Pigeon class is responsible for interfacing with the Pigeon2 gyro sensor.
  * It provides methods to get and set the yaw, roll, and pitch angles.
+ * <p>
+ * Gyro readings are captured once per loop by {@link #update(double)} and
+ * shared by every consumer through {@link #getState()}. The odometry thread
+ * reads the sensor directly through {@link #getLatencyCompensatedYaw()}.
  */
 public class Pigeon {
 
@@ -44,6 +49,25 @@ public class Pigeon {
 	private Rotation2d rollAdjustmentAngle = new Rotation2d();
 	private Rotation2d pitchAdjustmentAngle = new Rotation2d();
 
+	private final GyroState mState = new GyroState();
+
+	/**
+	 * Snapshot of the gyro taken once per loop.
+	 */
+	public static class GyroState {
+		public double timestamp = 0.0;
+		// FPGA time the sensor measured the yaw, before CAN and loop delays
+		public double sampleTimestamp = 0.0;
+		public double yawDegrees = 0.0;
+		public double pitchDegrees = 0.0;
+		public double rollDegrees = 0.0;
+		public double yawRateDegreesPerSecond = 0.0;
+
+		public Rotation2d yaw = Rotation2d.identity();
+		public Rotation2d pitch = Rotation2d.identity();
+		public Rotation2d roll = Rotation2d.identity();
+	}
+
 	private Pigeon(int port, String bus) {
 		mGyro = new Pigeon2(port, bus);
 		mGyro.getConfigurator().apply(new Pigeon2Configuration());
@@ -61,11 +85,58 @@ public class Pigeon {
 	}
 
 	/**
-	 * Gets the current yaw angle, adjusted for any set offsets.
+	 * Captures the gyro state for this loop. Call once in the read phase before
+	 * anything asks for the yaw, pitch or roll.
 	 *
-	 * @return The current yaw angle as a Rotation2d object.
+	 * @param timestamp The timestamp of the read phase.
+	 */
+	public void update(double timestamp) {
+		mState.timestamp = timestamp;
+		mState.sampleTimestamp = readYawSampleTimestamp(timestamp);
+		mState.yaw = getLatencyCompensatedYaw();
+		mState.pitch = readPitch();
+		mState.roll = readRoll();
+		mState.yawDegrees = mState.yaw.getDegrees();
+		mState.pitchDegrees = mState.pitch.getDegrees();
+		mState.rollDegrees = mState.roll.getDegrees();
+		mState.yawRateDegreesPerSecond = readYawRateDegreesPerSecond();
+	}
+
+	/**
+	 * Gets the gyro state captured by the last {@link #update(double)}.
+	 *
+	 * @return The gyro state for this loop.
+	 */
+	public GyroState getState() {
+		return mState;
+	}
+
+	/**
+	 * Gets the yaw angle captured this loop, adjusted for any set offsets.
+	 *
+	 * @return The yaw angle as a Rotation2d object.
 	 */
 	public Rotation2d getYaw() {
+		return mState.yaw;
+	}
+
+	/**
+	 * Gets the yaw rate captured this loop.
+	 *
+	 * @return The yaw rate in degrees per second.
+	 */
+	public double getYawRate() {
+		return mState.yawRateDegreesPerSecond;
+	}
+
+	/**
+	 * Reads the current yaw angle from the sensor, latency compensated against
+	 * the yaw rate and adjusted for any set offsets. Safe to call from the
+	 * odometry thread.
+	 *
+	 * @return The current yaw angle as a Rotation2d object.
+	 */
+	public Rotation2d getLatencyCompensatedYaw() {
 		if ( Constants.mode == Constants.Mode.SIM) {
 			return Rotation2d.fromDegrees(driveSim.getSimulatedDriveTrainPose().getRotation().getDegrees());
 		}
@@ -77,26 +148,57 @@ public class Pigeon {
 	}
 
 	/**
-	 * Gets the current roll angle, adjusted for any set offsets.
+	 * Gets the roll angle captured this loop, adjusted for any set offsets.
 	 *
-	 * @return The current roll angle as a Rotation2d object.
+	 * @return The roll angle as a Rotation2d object.
 	 */
 	public Rotation2d getRoll() {
-		return getUnadjustedRoll().rotateBy(rollAdjustmentAngle.inverse());
+		return mState.roll;
 	}
 
 	/**
-	 * Gets the current pitch angle, adjusted for any set offsets.
+	 * Gets the pitch angle captured this loop, adjusted for any set offsets.
 	 *
-	 * @return The current pitch angle as a Rotation2d object.
+	 * @return The pitch angle as a Rotation2d object.
 	 */
 	public Rotation2d getPitch() {
+		return mState.pitch;
+	}
+
+	private Rotation2d readRoll() {
+		if ( Constants.mode == Constants.Mode.SIM) {
+			return Rotation2d.identity();
+		}
+		return getUnadjustedRoll().rotateBy(rollAdjustmentAngle.inverse());
+	}
+
+	private Rotation2d readPitch() {
 		if ( Constants.mode == Constants.Mode.SIM) {
 			return Rotation2d.identity();
 		}
 		return getUnadjustedPitch().rotateBy(pitchAdjustmentAngle.inverse()).inverse();
 	}
 
+	/**
+	 * Converts the yaw signal's timestamp, in Phoenix's time base, to FPGA time
+	 * through its age.
+	 */
+	private double readYawSampleTimestamp(double timestamp) {
+		if ( Constants.mode == Constants.Mode.SIM) {
+			return timestamp;
+		}
+		double age = getYawStatusSignal().getAllTimestamps().getBestTimestamp().getLatency();
+		return Timer.getFPGATimestamp() - age;
+	}
+
+	private double readYawRateDegreesPerSecond() {
+		if ( Constants.mode == Constants.Mode.SIM) {
+			return Math.toDegrees(driveSim.getDriveTrainSimulatedChassisSpeedsFieldRelative().omegaRadiansPerSecond);
+		}
+		double rate = getRateStatusSignal().getValueAsDouble();
+		return inverted ? -rate : rate;
+	}
+
 	/**
 	 * Sets the yaw register to read the specified value.
 	 *
@@ -105,6 +207,7 @@ public class Pigeon {
 	public void setYaw(double angleDeg) {
 		yawAdjustmentAngle = Rotation2d.fromDegrees(getYawStatusSignal().getValueAsDouble())
 				.rotateBy(Rotation2d.fromDegrees(angleDeg).inverse());
+		update(mState.timestamp);
 	}
 
 	/**
@@ -114,6 +217,7 @@ public class Pigeon {
 	 */
 	public void setRoll(double angleDeg) {
 		rollAdjustmentAngle = getUnadjustedRoll().rotateBy(Rotation2d.fromDegrees(angleDeg).inverse());
+		update(mState.timestamp);
 	}
 
 	/**
@@ -123,6 +227,7 @@ public class Pigeon {
 	 */
 	public void setPitch(double angleDeg) {
 		pitchAdjustmentAngle = getUnadjustedPitch().rotateBy(Rotation2d.fromDegrees(angleDeg).inverse());
+		update(mState.timestamp);
 		System.out.println("Reset gyro to " + getPitch().getDegrees());
 	}
 
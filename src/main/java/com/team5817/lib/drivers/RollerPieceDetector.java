@@ -0,0 +1,197 @@
+package com.team5817.lib.drivers;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Watches the stator current and velocity of a roller TalonFX at a high signal
+ * rate and flags when a game piece is acquired or released. Runs on its own
+ * thread so detection does not wait on the 20 ms loop.
+ * <p>
+ * A piece is acquired when a roller that was spinning freely stalls against it
+ * with high current. It is released when the roller spins freely again with low
+ * current.
+ */
+public class RollerPieceDetector {
+
+	// Recommend initializing in a static block!
+	public static class PieceDetectorConstants {
+		public String kName = "ERROR_ASSIGN_A_NAME";
+
+		public double kUpdateFrequencyHz = 250.0;
+		public double kSignalTimeoutSeconds = 0.1;
+
+		public double kFreeSpinVelocity = 10.0; // rotations / s
+		public double kStallVelocity = 2.0; // rotations / s
+		public double kAcquireCurrentThreshold = 60.0; // amps
+		public double kReleaseCurrentThreshold = 25.0; // amps
+
+		public int kAcquireDebounceSamples = 3;
+		public int kReleaseDebounceSamples = 3;
+	}
+
+	private final PieceDetectorConstants mConstants;
+	private final StatusSignal<Current> mStatorCurrent;
+	private final StatusSignal<AngularVelocity> mVelocity;
+
+	private volatile boolean mHasPiece = false;
+	private volatile double mLastAcquiredTimestamp = Double.NaN;
+	private volatile double mLastReleasedTimestamp = Double.NaN;
+	private volatile double mLastSampleTimestamp = Double.NaN;
+
+	// Only touched while holding the detector lock
+	private boolean mArmed = false;
+	private int mDebounceCount = 0;
+
+	private DetectorThread mDetectorThread;
+
+	/**
+	 * Constructs a detector on the given roller motor.
+	 *
+	 * @param roller    The roller TalonFX to watch.
+	 * @param constants Thresholds and signal rate for the detector.
+	 */
+	public RollerPieceDetector(TalonFX roller, PieceDetectorConstants constants) {
+		mConstants = constants;
+		mStatorCurrent = roller.getStatorCurrent();
+		mVelocity = roller.getVelocity();
+	}
+
+	/**
+	 * Raises the current and velocity signal rate and starts the detector thread.
+	 * Does nothing if the thread is already running.
+	 */
+	public void start() {
+		if (mDetectorThread != null) {
+			return;
+		}
+		BaseStatusSignal.setUpdateFrequencyForAll(mConstants.kUpdateFrequencyHz, mStatorCurrent, mVelocity);
+		mDetectorThread = new DetectorThread();
+		mDetectorThread.setDaemon(true);
+		mDetectorThread.start();
+	}
+
+	private class DetectorThread extends Thread {
+		private static final double kErrorReportIntervalSeconds = 1.0;
+		private double mLastErrorReportTimestamp = Double.NEGATIVE_INFINITY;
+
+		DetectorThread() {
+			super(mConstants.kName + " Piece Detector");
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				try {
+					StatusCode status = BaseStatusSignal.waitForAll(mConstants.kSignalTimeoutSeconds, mStatorCurrent,
+							mVelocity);
+					if (!status.isOK()) {
+						continue;
+					}
+					update(Timer.getFPGATimestamp(), Math.abs(mStatorCurrent.getValueAsDouble()),
+							Math.abs(mVelocity.getValueAsDouble()));
+				} catch (Exception e) {
+					// Don't flood the driver station if this repeats every sample
+					double now = Timer.getFPGATimestamp();
+					if (now - mLastErrorReportTimestamp > kErrorReportIntervalSeconds) {
+						mLastErrorReportTimestamp = now;
+						DriverStation.reportError(getName() + " failed: " + e, e.getStackTrace());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Steps the detector with a single current and velocity sample.
+	 *
+	 * @param timestamp The time the sample was taken.
+	 * @param current   Stator current magnitude in amps.
+	 * @param velocity  Roller speed magnitude in rotations per second.
+	 */
+	private synchronized void update(double timestamp, double current, double velocity) {
+		mLastSampleTimestamp = timestamp;
+		if (!mHasPiece) {
+			if (velocity >= mConstants.kFreeSpinVelocity) {
+				mArmed = true;
+			}
+			if (mArmed && current >= mConstants.kAcquireCurrentThreshold && velocity <= mConstants.kStallVelocity) {
+				if (++mDebounceCount >= mConstants.kAcquireDebounceSamples) {
+					mHasPiece = true;
+					mLastAcquiredTimestamp = timestamp;
+					mArmed = false;
+					mDebounceCount = 0;
+				}
+			} else {
+				mDebounceCount = 0;
+			}
+		} else {
+			if (current <= mConstants.kReleaseCurrentThreshold && velocity >= mConstants.kFreeSpinVelocity) {
+				if (++mDebounceCount >= mConstants.kReleaseDebounceSamples) {
+					mHasPiece = false;
+					mLastReleasedTimestamp = timestamp;
+					mDebounceCount = 0;
+				}
+			} else {
+				mDebounceCount = 0;
+			}
+		}
+	}
+
+	/**
+	 * Overrides what the detector sees, for a piece it can't have watched go in,
+	 * like one preloaded before the match, or for simulation. Detection carries
+	 * on from the given state.
+	 *
+	 * @param hasPiece  Whether a piece is in the rollers.
+	 * @param timestamp FPGA time to record the acquisition or release at.
+	 */
+	public synchronized void setHasPiece(boolean hasPiece, double timestamp) {
+		if (hasPiece == mHasPiece) {
+			return;
+		}
+		mHasPiece = hasPiece;
+		if (hasPiece) {
+			mLastAcquiredTimestamp = timestamp;
+		} else {
+			mLastReleasedTimestamp = timestamp;
+		}
+		mArmed = false;
+		mDebounceCount = 0;
+	}
+
+	/**
+	 * @return Whether a piece is currently detected in the rollers.
+	 */
+	public boolean hasPiece() {
+		return mHasPiece;
+	}
+
+	/**
+	 * @return FPGA time of the most recent acquisition, or NaN if none yet.
+	 */
+	public double getLastAcquiredTimestamp() {
+		return mLastAcquiredTimestamp;
+	}
+
+	/**
+	 * @return FPGA time of the most recent release, or NaN if none yet.
+	 */
+	public double getLastReleasedTimestamp() {
+		return mLastReleasedTimestamp;
+	}
+
+	/**
+	 * @return FPGA time of the most recent sample seen by the detector.
+	 */
+	public double getLastSampleTimestamp() {
+		return mLastSampleTimestamp;
+	}
+}
@@ -1,5 +1,9 @@
 package com.team5817.lib.drivers;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.team254.lib.drivers.MotorChecker.MotorResult;
 import com.team5817.frc2025.loops.ILooper;
 
 /**
@@ -72,6 +76,27 @@ public abstract class Subsystem {
 		return false;
 	}
 
+	/**
+	 * Whether {@link #checkSystem()} actually tests anything. Subsystems without
+	 * a real check are reported as skipped instead of failed.
+	 * 
+	 * @return true if the subsystem implements a check
+	 */
+	public boolean hasSystemCheck() {
+		return false;
+	}
+
+	protected final ArrayList<MotorResult> mCheckResults = new ArrayList<>();
+
+	/**
+	 * Gets the per-motor results of the last {@link #checkSystem()}.
+	 * 
+	 * @return the measured current and RPM of each motor checked
+	 */
+	public List<MotorResult> getCheckResults() {
+		return mCheckResults;
+	}
+
 	public boolean hasEmergency = false;
 
 	/**
@@ -5,7 +5,7 @@ import com.team5817.lib.util.Stopwatch;
 public class WaitForPrereqRequest extends Request {
 	private final Prerequisite prerequisite;
 	private final double timeoutSeconds;
-	private Stopwatch stopwatch;
+	private final Stopwatch stopwatch = new Stopwatch();
 
 	public WaitForPrereqRequest(Prerequisite prerequisite) {
 		this(prerequisite, Double.POSITIVE_INFINITY);
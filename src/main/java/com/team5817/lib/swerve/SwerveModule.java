@@ -3,7 +3,6 @@ package com.team5817.lib.swerve;
 import static edu.wpi.first.units.Units.Amps;
 import static edu.wpi.first.units.Units.Degree;
 import static edu.wpi.first.units.Units.Rotation;
-import static edu.wpi.first.units.Units.RotationsPerSecond;
 
 import org.littletonrobotics.junction.AutoLog;
 import org.littletonrobotics.junction.Logger;
@@ -87,7 +86,6 @@ public class SwerveModule extends Subsystem {
 				.apply(SwerveConstants.DriveFXConfig(SwerveConstants.driveMotorInvert), Constants.kLongCANTimeoutS));
 		mDriveMotor.setPosition(0.0);
 
-		resetToAbsolute();
 		mSignals[0] = mDriveMotor.getRotorPosition();
 		mSignals[1] = mDriveMotor.getRotorVelocity();
 		mSignals[2] = mAngleMotor.getRotorPosition();
@@ -108,7 +106,7 @@ public class SwerveModule extends Subsystem {
 			mInputs.drivePosition = 0;
 			mInputs.rotationPosition = mOutputs.rotTarget;
 		} else {
-			mInputs.driveVelocity = mDriveMotor.getRotorVelocity().getValue().in(RotationsPerSecond);
+			mInputs.driveVelocity = mDriveMotor.getRotorVelocity().getValueAsDouble();
 			mInputs.drivePosition = mDriveMotor.getRotorPosition().getValueAsDouble();
 			mInputs.rotationPosition = Util.placeInAppropriate0To360Scope(0,
 					BaseStatusSignal.getLatencyCompensatedValue(
@@ -184,6 +182,14 @@ public class SwerveModule extends Subsystem {
 
 	public void resetToAbsolute() {
 		angleEncoder.getAbsolutePosition().waitForUpdate(Constants.kLongCANTimeoutS);
+		seedFromAbsolute();
+	}
+
+	/**
+	 * Seeds the angle motor from the latest absolute encoder sample without
+	 * waiting for a new one. Callers must know the sample is fresh.
+	 */
+	public void seedFromAbsolute() {
 		double angle = Util.placeInAppropriate0To360Scope(
 				getCurrentUnboundedDegrees(), getCanCoder().getDegrees() - kAngleOffset);
 		double absolutePosition = Conversions.degreesToRotation(angle, SwerveConstants.angleGearRatio);
@@ -272,6 +278,14 @@ public class SwerveModule extends Subsystem {
 		return mDriveMotor.getStatorCurrent().getValue().in(Amps);
 	}
 
+	public TalonFX getDriveMotor() {
+		return mDriveMotor;
+	}
+
+	public TalonFX getAngleMotor() {
+		return mAngleMotor;
+	}
+
 	public BaseStatusSignal[] getUsedStatusSignals() {
 		return mSignals;
 	}
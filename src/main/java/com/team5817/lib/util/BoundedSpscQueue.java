@@ -0,0 +1,82 @@
+package com.team5817.lib.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer/single-consumer queue of object references. Uses the
+ * same ordered head and tail writes as {@link OdometrySampleBuffer}, so neither
+ * side locks or allocates.
+ * <p>
+ * When the queue is full new elements are dropped and counted.
+ */
+public class BoundedSpscQueue<T> {
+	private final int mCapacity;
+	private final int mMask;
+	private final Object[] mElements;
+
+	// Next slot to read, only advanced by the consumer
+	private final AtomicLong mHead = new AtomicLong(0);
+	// Next slot to write, only advanced by the producer
+	private final AtomicLong mTail = new AtomicLong(0);
+	private final AtomicLong mDropped = new AtomicLong(0);
+
+	/**
+	 * Constructs a queue.
+	 *
+	 * @param capacity Number of elements held, rounded up to a power of two.
+	 */
+	public BoundedSpscQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		mCapacity = size;
+		mMask = size - 1;
+		mElements = new Object[size];
+	}
+
+	/**
+	 * Adds an element. Producer thread only.
+	 *
+	 * @return false if the queue was full and the element was dropped.
+	 */
+	public boolean offer(T element) {
+		long tail = mTail.get();
+		if (tail - mHead.get() >= mCapacity) {
+			mDropped.incrementAndGet();
+			return false;
+		}
+		mElements[(int) (tail & mMask)] = element;
+		mTail.lazySet(tail + 1);
+		return true;
+	}
+
+	/**
+	 * Takes the oldest element. Consumer thread only.
+	 *
+	 * @return The element, or null if the queue was empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public T poll() {
+		long head = mHead.get();
+		if (head >= mTail.get()) {
+			return null;
+		}
+		int i = (int) (head & mMask);
+		T element = (T) mElements[i];
+		mElements[i] = null;
+		mHead.lazySet(head + 1);
+		return element;
+	}
+
+	/**
+	 * @return Number of elements waiting to be read.
+	 */
+	public int size() {
+		return (int) (mTail.get() - mHead.get());
+	}
+
+	/**
+	 * @return Number of elements dropped because the queue was full.
+	 */
+	public long getDroppedCount() {
+		return mDropped.get();
+	}
+}
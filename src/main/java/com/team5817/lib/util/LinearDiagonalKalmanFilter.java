@@ -0,0 +1,233 @@
+package com.team5817.lib.util;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.Num;
+import edu.wpi.first.math.numbers.N1;
+
+/**
+ * A linear Kalman filter for a constant state measured directly, i.e. x' = 0
+ * and y = x, with independent noise on every state. With those models the
+ * covariance stays diagonal and every step reduces to scalar math per state:
+ * <ul>
+ * <li>predict: P += Q * dt</li>
+ * <li>correct: K = P / (P + R / dt), x += K * (y - x), P = (1 - K) * P</li>
+ * </ul>
+ * R is always discretized with the nominal dt given at construction, so a
+ * measurement's weight doesn't depend on how the predicts before it were split.
+ * When every predict uses the nominal dt this matches what
+ * {@link UnscentedKalmanFilter} computes for the same models, without sigma
+ * points, decompositions or allocation.
+ */
+public class LinearDiagonalKalmanFilter<States extends Num, Inputs extends Num>
+		implements KalmanTypeFilter<States, Inputs, States> {
+	private final Nat<States> m_states;
+	private final int m_numStates;
+
+	private final double[] m_xHat;
+	private final double[] m_P;
+	private final double[] m_contQ;
+	private final double[] m_contR;
+
+	private final double m_nominalDtSeconds;
+
+	/**
+	 * Constructs a filter.
+	 *
+	 * @param states             Number of states.
+	 * @param stateStdDevs       Standard deviations of model states.
+	 * @param measurementStdDevs Standard deviations of measurements.
+	 * @param nominalDtSeconds   Nominal discretization timestep, used to
+	 *                           discretize R.
+	 */
+	public LinearDiagonalKalmanFilter(
+			Nat<States> states,
+			Matrix<States, N1> stateStdDevs,
+			Matrix<States, N1> measurementStdDevs,
+			double nominalDtSeconds) {
+		m_states = states;
+		m_numStates = states.getNum();
+		m_xHat = new double[m_numStates];
+		m_P = new double[m_numStates];
+		m_contQ = new double[m_numStates];
+		m_contR = new double[m_numStates];
+		for (int i = 0; i < m_numStates; i++) {
+			m_contQ[i] = stateStdDevs.get(i, 0) * stateStdDevs.get(i, 0);
+			m_contR[i] = measurementStdDevs.get(i, 0) * measurementStdDevs.get(i, 0);
+		}
+		m_nominalDtSeconds = nominalDtSeconds;
+
+		reset();
+	}
+
+	@Override
+	public Matrix<States, States> getP() {
+		Matrix<States, States> P = new Matrix<>(m_states, m_states);
+		for (int i = 0; i < m_numStates; i++) {
+			P.set(i, i, m_P[i]);
+		}
+		return P;
+	}
+
+	@Override
+	public double getP(int row, int col) {
+		return row == col ? m_P[row] : 0.0;
+	}
+
+	/**
+	 * Sets the error covariance. Only the diagonal is used.
+	 *
+	 * @param newP The new value of P to use.
+	 */
+	@Override
+	public void setP(Matrix<States, States> newP) {
+		for (int i = 0; i < m_numStates; i++) {
+			m_P[i] = newP.get(i, i);
+		}
+	}
+
+	/**
+	 * Sets one variance on the diagonal of the error covariance.
+	 *
+	 * @param i     State index.
+	 * @param value The new variance.
+	 */
+	public void setP(int i, double value) {
+		m_P[i] = value;
+	}
+
+	@Override
+	public Matrix<States, N1> getXhat() {
+		Matrix<States, N1> xHat = new Matrix<>(m_states, Nat.N1());
+		for (int i = 0; i < m_numStates; i++) {
+			xHat.set(i, 0, m_xHat[i]);
+		}
+		return xHat;
+	}
+
+	@Override
+	public double getXhat(int row) {
+		return m_xHat[row];
+	}
+
+	@Override
+	public void setXhat(Matrix<States, N1> xHat) {
+		for (int i = 0; i < m_numStates; i++) {
+			m_xHat[i] = xHat.get(i, 0);
+		}
+	}
+
+	@Override
+	public void setXhat(int row, double value) {
+		m_xHat[row] = value;
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < m_numStates; i++) {
+			m_xHat[i] = 0.0;
+			m_P[i] = 0.0;
+		}
+	}
+
+	@Override
+	public void predict(Matrix<Inputs, N1> u, double dtSeconds) {
+		predict(dtSeconds);
+	}
+
+	/**
+	 * Projects the covariance forward. The state is constant so x-hat is unchanged.
+	 *
+	 * @param dtSeconds Timestep for prediction.
+	 */
+	public void predict(double dtSeconds) {
+		for (int i = 0; i < m_numStates; i++) {
+			m_P[i] += m_contQ[i] * dtSeconds;
+		}
+	}
+
+	@Override
+	public void correct(Matrix<Inputs, N1> u, Matrix<States, N1> y) {
+		for (int i = 0; i < m_numStates; i++) {
+			correct(i, y.get(i, 0));
+		}
+	}
+
+	/**
+	 * Corrects the state estimate with new measurement standard deviations. Like
+	 * {@link UnscentedKalmanFilter}, the new standard deviations are kept for
+	 * later corrections.
+	 *
+	 * @param u                  Same control input used in the predict step.
+	 * @param y                  Measurement vector.
+	 * @param measurementStdDevs Standard deviations of the measurements.
+	 */
+	public void correct(Matrix<Inputs, N1> u, Matrix<States, N1> y, Matrix<States, N1> measurementStdDevs) {
+		for (int i = 0; i < m_numStates; i++) {
+			m_contR[i] = measurementStdDevs.get(i, 0) * measurementStdDevs.get(i, 0);
+		}
+		correct(u, y);
+	}
+
+	/**
+	 * Corrects a single state with its measurement.
+	 *
+	 * @param i State index.
+	 * @param y Measurement of that state.
+	 */
+	public void correct(int i, double y) {
+		correctWithVariance(i, y, m_contR[i]);
+	}
+
+	/**
+	 * Corrects a single state with a measurement of its own standard deviation.
+	 * Unlike {@link #correct(Matrix, Matrix, Matrix)}, the standard deviation is
+	 * only used for this correction.
+	 *
+	 * @param i                 State index.
+	 * @param y                 Measurement of that state.
+	 * @param measurementStdDev Standard deviation of the measurement.
+	 */
+	public void correct(int i, double y, double measurementStdDev) {
+		correctWithVariance(i, y, measurementStdDev * measurementStdDev);
+	}
+
+	/**
+	 * Variance of the innovation y - x-hat for a measurement of one state, i.e.
+	 * P + R / dt as used by {@link #correct(int, double, double)}.
+	 *
+	 * @param i                 State index.
+	 * @param measurementStdDev Standard deviation of the measurement.
+	 * @return The innovation variance.
+	 */
+	public double getInnovationVariance(int i, double measurementStdDev) {
+		return getInnovationVariance(i, m_P[i], 0.0, measurementStdDev);
+	}
+
+	/**
+	 * Variance of the innovation for a measurement of one state taken some time
+	 * after the state had variance P, e.g. against a snapshot of an earlier
+	 * filter state.
+	 *
+	 * @param i                 State index.
+	 * @param P                 Variance of the state at the snapshot.
+	 * @param dtSeconds         Time from the snapshot to the measurement.
+	 * @param measurementStdDev Standard deviation of the measurement.
+	 * @return The innovation variance.
+	 */
+	public double getInnovationVariance(int i, double P, double dtSeconds, double measurementStdDev) {
+		return P + m_contQ[i] * Math.max(dtSeconds, 0.0)
+				+ measurementStdDev * measurementStdDev / m_nominalDtSeconds;
+	}
+
+	private void correctWithVariance(int i, double y, double contR) {
+		double discR = contR / m_nominalDtSeconds;
+		double denominator = m_P[i] + discR;
+		if (denominator <= 0.0) {
+			return;
+		}
+		double K = m_P[i] / denominator;
+		m_xHat[i] += K * (y - m_xHat[i]);
+		m_P[i] = (1.0 - K) * m_P[i];
+	}
+}
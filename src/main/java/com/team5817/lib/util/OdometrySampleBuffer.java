@@ -0,0 +1,176 @@
+package com.team5817.lib.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-producer/single-consumer ring buffer of timestamped odometry samples.
+ * Samples are stored in parallel primitive arrays so neither side allocates.
+ * The producer publishes a slot by advancing the tail with an ordered write,
+ * the consumer frees it by advancing the head, so a sample is never read while
+ * it is being written.
+ * <p>
+ * When the buffer is full new samples are dropped and counted rather than
+ * overwriting ones the consumer may be reading.
+ */
+public class OdometrySampleBuffer {
+
+	/**
+	 * A single odometry sample. Reused by the consumer between polls.
+	 */
+	public static class Sample {
+		public double timestamp;
+		public double gyroHeading; // radians, as read from the gyro
+		public double x;
+		public double y;
+		public double heading; // radians, as integrated
+		public double vx;
+		public double vy;
+		public int resetCount;
+		public final double[] moduleDeltas;
+		public final double[] moduleDistances;
+		public final double[] moduleAngles; // degrees
+
+		public Sample(int numModules) {
+			moduleDeltas = new double[numModules];
+			moduleDistances = new double[numModules];
+			moduleAngles = new double[numModules];
+		}
+	}
+
+	private final int mCapacity;
+	private final int mMask;
+	private final int mNumModules;
+
+	private final double[] mTimestamp;
+	private final double[] mGyroHeading;
+	private final double[] mX;
+	private final double[] mY;
+	private final double[] mHeading;
+	private final double[] mVx;
+	private final double[] mVy;
+	private final int[] mResetCount;
+	private final double[] mModuleDeltas;
+	private final double[] mModuleDistances;
+	private final double[] mModuleAngles;
+
+	// Next slot to read, only advanced by the consumer
+	private final AtomicLong mHead = new AtomicLong(0);
+	// Next slot to write, only advanced by the producer
+	private final AtomicLong mTail = new AtomicLong(0);
+	private final AtomicLong mDropped = new AtomicLong(0);
+
+	/**
+	 * Constructs a buffer.
+	 *
+	 * @param capacity   Number of samples held, rounded up to a power of two.
+	 * @param numModules Number of module deltas stored per sample.
+	 */
+	public OdometrySampleBuffer(int capacity, int numModules) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		mCapacity = size;
+		mMask = size - 1;
+		mNumModules = numModules;
+		mTimestamp = new double[size];
+		mGyroHeading = new double[size];
+		mX = new double[size];
+		mY = new double[size];
+		mHeading = new double[size];
+		mVx = new double[size];
+		mVy = new double[size];
+		mResetCount = new int[size];
+		mModuleDeltas = new double[size * numModules];
+		mModuleDistances = new double[size * numModules];
+		mModuleAngles = new double[size * numModules];
+	}
+
+	/**
+	 * Checks that there is room for another sample, counting a drop if there
+	 * isn't. Producer thread only. Checking before integrating lets the producer
+	 * skip a sample entirely, so whatever the consumer sees is a complete record
+	 * of what was integrated.
+	 *
+	 * @return false if the buffer is full.
+	 */
+	public boolean reserve() {
+		if (mTail.get() - mHead.get() >= mCapacity) {
+			mDropped.incrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a sample. Producer thread only.
+	 *
+	 * @param gyroHeading     Gyro heading in radians the sample was integrated
+	 *                        from.
+	 * @param moduleDistances Drive distance of each module the sample was
+	 *                        integrated from.
+	 * @param moduleAngles    Angle of each module in degrees the sample was
+	 *                        integrated from.
+	 * @return false if the buffer was full and the sample was dropped.
+	 */
+	public boolean offer(double timestamp, double gyroHeading, double x, double y, double heading, double vx,
+			double vy, int resetCount, double[] moduleDeltas, double[] moduleDistances, double[] moduleAngles) {
+		long tail = mTail.get();
+		if (tail - mHead.get() >= mCapacity) {
+			mDropped.incrementAndGet();
+			return false;
+		}
+		int i = (int) (tail & mMask);
+		mTimestamp[i] = timestamp;
+		mGyroHeading[i] = gyroHeading;
+		mX[i] = x;
+		mY[i] = y;
+		mHeading[i] = heading;
+		mVx[i] = vx;
+		mVy[i] = vy;
+		mResetCount[i] = resetCount;
+		System.arraycopy(moduleDeltas, 0, mModuleDeltas, i * mNumModules, mNumModules);
+		System.arraycopy(moduleDistances, 0, mModuleDistances, i * mNumModules, mNumModules);
+		System.arraycopy(moduleAngles, 0, mModuleAngles, i * mNumModules, mNumModules);
+		mTail.lazySet(tail + 1);
+		return true;
+	}
+
+	/**
+	 * Takes the oldest sample. Consumer thread only.
+	 *
+	 * @param out Sample to copy into.
+	 * @return false if the buffer was empty.
+	 */
+	public boolean poll(Sample out) {
+		long head = mHead.get();
+		if (head >= mTail.get()) {
+			return false;
+		}
+		int i = (int) (head & mMask);
+		out.timestamp = mTimestamp[i];
+		out.gyroHeading = mGyroHeading[i];
+		out.x = mX[i];
+		out.y = mY[i];
+		out.heading = mHeading[i];
+		out.vx = mVx[i];
+		out.vy = mVy[i];
+		out.resetCount = mResetCount[i];
+		System.arraycopy(mModuleDeltas, i * mNumModules, out.moduleDeltas, 0, mNumModules);
+		System.arraycopy(mModuleDistances, i * mNumModules, out.moduleDistances, 0, mNumModules);
+		System.arraycopy(mModuleAngles, i * mNumModules, out.moduleAngles, 0, mNumModules);
+		mHead.lazySet(head + 1);
+		return true;
+	}
+
+	/**
+	 * @return Number of samples waiting to be read.
+	 */
+	public int size() {
+		return (int) (mTail.get() - mHead.get());
+	}
+
+	/**
+	 * @return Number of samples dropped because the buffer was full.
+	 */
+	public long getDroppedCount() {
+		return mDropped.get();
+	}
+}
@@ -0,0 +1,248 @@
+package com.team5817.lib.util;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.util.InterpolatingDouble;
+
+/**
+ * Fixed-capacity, time-ordered history of 2d poses stored in parallel primitive
+ * arrays. Once full, the oldest pose is dropped to make room. Lookups binary
+ * search the timestamps and interpolate into a caller-supplied array: linearly
+ * in x and y, and along the shortest arc in heading.
+ * <p>
+ * The {@link InterpolatingDouble} overloads mirror the
+ * {@link com.team254.lib.util.InterpolatingTreeMap} API so existing callers can
+ * switch over unchanged.
+ */
+public class PoseHistoryBuffer {
+	private final int mCapacity;
+	private final double[] mT;
+	private final double[] mX;
+	private final double[] mY;
+	private final double[] mTheta;
+
+	// Physical index of the oldest entry
+	private int mStart = 0;
+	private int mSize = 0;
+
+	/**
+	 * Constructs an empty buffer.
+	 *
+	 * @param capacity Maximum number of poses held.
+	 */
+	public PoseHistoryBuffer(int capacity) {
+		mCapacity = capacity;
+		mT = new double[capacity];
+		mX = new double[capacity];
+		mY = new double[capacity];
+		mTheta = new double[capacity];
+	}
+
+	/**
+	 * @return Number of poses held.
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * Removes every pose.
+	 */
+	public void clear() {
+		mStart = 0;
+		mSize = 0;
+	}
+
+	private int physical(int i) {
+		return (mStart + i) % mCapacity;
+	}
+
+	/**
+	 * @return Logical index of the first entry with a timestamp not less than t.
+	 */
+	private int lowerBound(double t) {
+		int lo = 0;
+		int hi = mSize;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (mT[physical(mid)] < t) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private void write(int i, double t, double x, double y, double theta) {
+		int p = physical(i);
+		mT[p] = t;
+		mX[p] = x;
+		mY[p] = y;
+		mTheta[p] = theta;
+	}
+
+	/**
+	 * Adds a pose. A pose at an existing timestamp replaces it. Appending in time
+	 * order is constant time; out of order inserts shift the newer entries.
+	 *
+	 * @param t     Timestamp in seconds.
+	 * @param x     X in meters.
+	 * @param y     Y in meters.
+	 * @param theta Heading in radians.
+	 */
+	public void put(double t, double x, double y, double theta) {
+		if (mSize == 0 || t > mT[physical(mSize - 1)]) {
+			if (mSize == mCapacity) {
+				mStart = (mStart + 1) % mCapacity;
+				mSize--;
+			}
+			mSize++;
+			write(mSize - 1, t, x, y, theta);
+			return;
+		}
+
+		int idx = lowerBound(t);
+		if (idx < mSize && mT[physical(idx)] == t) {
+			write(idx, t, x, y, theta);
+			return;
+		}
+		if (mSize == mCapacity) {
+			mStart = (mStart + 1) % mCapacity;
+			mSize--;
+			idx = Math.max(idx - 1, 0);
+		}
+		for (int i = mSize; i > idx; i--) {
+			int to = physical(i);
+			int from = physical(i - 1);
+			mT[to] = mT[from];
+			mX[to] = mX[from];
+			mY[to] = mY[from];
+			mTheta[to] = mTheta[from];
+		}
+		mSize++;
+		write(idx, t, x, y, theta);
+	}
+
+	/**
+	 * Drops every pose older than the given time.
+	 *
+	 * @param t Oldest timestamp to keep.
+	 */
+	public void removeBefore(double t) {
+		while (mSize > 0 && mT[mStart] < t) {
+			mStart = (mStart + 1) % mCapacity;
+			mSize--;
+		}
+	}
+
+	/**
+	 * Looks up the pose at a time, interpolating between the surrounding entries.
+	 * Times outside the history return the nearest end.
+	 *
+	 * @param t   Timestamp in seconds.
+	 * @param out Array of at least three filled with x, y and heading in radians.
+	 * @return False if the buffer is empty and out was left untouched.
+	 */
+	public boolean getInterpolated(double t, double[] out) {
+		if (mSize == 0) {
+			return false;
+		}
+		int idx = lowerBound(t);
+		if (idx >= mSize) {
+			copy(mSize - 1, out);
+			return true;
+		}
+		int upper = physical(idx);
+		if (idx == 0 || mT[upper] == t) {
+			copy(idx, out);
+			return true;
+		}
+		int lower = physical(idx - 1);
+		double s = (t - mT[lower]) / (mT[upper] - mT[lower]);
+		out[0] = mX[lower] + (mX[upper] - mX[lower]) * s;
+		out[1] = mY[lower] + (mY[upper] - mY[lower]) * s;
+		out[2] = mTheta[lower] + Math.IEEEremainder(mTheta[upper] - mTheta[lower], 2.0 * Math.PI) * s;
+		return true;
+	}
+
+	private void copy(int i, double[] out) {
+		int p = physical(i);
+		out[0] = mX[p];
+		out[1] = mY[p];
+		out[2] = mTheta[p];
+	}
+
+	/**
+	 * @return Timestamp of the newest pose.
+	 * @throws NoSuchElementException if the buffer is empty.
+	 */
+	public double lastTimestamp() {
+		if (mSize == 0) {
+			throw new NoSuchElementException();
+		}
+		return mT[physical(mSize - 1)];
+	}
+
+	/**
+	 * @return Timestamp of the oldest pose.
+	 * @throws NoSuchElementException if the buffer is empty.
+	 */
+	public double firstTimestamp() {
+		if (mSize == 0) {
+			throw new NoSuchElementException();
+		}
+		return mT[mStart];
+	}
+
+	private Pose2d pose(int i) {
+		int p = physical(i);
+		return new Pose2d(mX[p], mY[p], Rotation2d.fromRadians(mTheta[p]));
+	}
+
+	/**
+	 * Adds a pose.
+	 *
+	 * @param key   Timestamp.
+	 * @param value Pose.
+	 * @return The value.
+	 */
+	public Pose2d put(InterpolatingDouble key, Pose2d value) {
+		put(key.value, value.getTranslation().x(), value.getTranslation().y(), value.getRotation().getRadians());
+		return value;
+	}
+
+	/**
+	 * @param key Timestamp to look up.
+	 * @return The interpolated pose, or null if the buffer is empty.
+	 */
+	public Pose2d getInterpolated(InterpolatingDouble key) {
+		double[] out = new double[3];
+		if (!getInterpolated(key.value, out)) {
+			return null;
+		}
+		return new Pose2d(out[0], out[1], Rotation2d.fromRadians(out[2]));
+	}
+
+	/**
+	 * @return The newest entry, or null if the buffer is empty.
+	 */
+	public Map.Entry<InterpolatingDouble, Pose2d> lastEntry() {
+		if (mSize == 0) {
+			return null;
+		}
+		return new AbstractMap.SimpleImmutableEntry<>(new InterpolatingDouble(lastTimestamp()), pose(mSize - 1));
+	}
+
+	/**
+	 * @return The newest timestamp.
+	 * @throws NoSuchElementException if the buffer is empty.
+	 */
+	public InterpolatingDouble lastKey() {
+		return new InterpolatingDouble(lastTimestamp());
+	}
+}
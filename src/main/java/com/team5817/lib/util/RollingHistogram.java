@@ -0,0 +1,122 @@
+package com.team5817.lib.util;
+
+import java.util.Arrays;
+
+/**
+ * Histogram over the most recent samples. Each bucket holds the samples at or
+ * below its upper bound and above the previous one; the last bound should be
+ * {@link Double#POSITIVE_INFINITY} to catch everything else.
+ * <p>
+ * Adding a sample evicts the oldest once the window is full, so the counts
+ * always describe the last {@code windowSize} samples. Does not allocate after
+ * construction. Not thread safe.
+ */
+public class RollingHistogram {
+	private final double[] mUpperBounds;
+	private final int[] mCounts;
+	private final int[] mWindowBuckets;
+	private final double[] mWindowValues;
+
+	private int mNext = 0;
+	private int mSize = 0;
+	private double mSum = 0.0;
+
+	/**
+	 * Constructs a histogram.
+	 *
+	 * @param upperBounds Inclusive upper bound of each bucket, ascending.
+	 * @param windowSize  Number of recent samples kept.
+	 */
+	public RollingHistogram(double[] upperBounds, int windowSize) {
+		mUpperBounds = upperBounds.clone();
+		mCounts = new int[upperBounds.length];
+		mWindowBuckets = new int[windowSize];
+		mWindowValues = new double[windowSize];
+	}
+
+	/**
+	 * Adds a sample, evicting the oldest if the window is full.
+	 */
+	public void add(double value) {
+		if (mSize == mWindowBuckets.length) {
+			mCounts[mWindowBuckets[mNext]]--;
+			mSum -= mWindowValues[mNext];
+		} else {
+			mSize++;
+		}
+		int bucket = bucketOf(value);
+		mCounts[bucket]++;
+		mSum += value;
+		mWindowBuckets[mNext] = bucket;
+		mWindowValues[mNext] = value;
+		mNext = (mNext + 1) % mWindowBuckets.length;
+	}
+
+	private int bucketOf(double value) {
+		for (int i = 0; i < mUpperBounds.length - 1; i++) {
+			if (value <= mUpperBounds[i]) {
+				return i;
+			}
+		}
+		return mUpperBounds.length - 1;
+	}
+
+	/**
+	 * @return The upper bound of the bucket holding the given quantile, or 0 if
+	 *         there are no samples.
+	 */
+	public double getQuantile(double quantile) {
+		if (mSize == 0) {
+			return 0.0;
+		}
+		int target = (int) Math.ceil(quantile * mSize);
+		int cumulative = 0;
+		for (int i = 0; i < mCounts.length; i++) {
+			cumulative += mCounts[i];
+			if (cumulative >= target) {
+				return mUpperBounds[i];
+			}
+		}
+		return mUpperBounds[mUpperBounds.length - 1];
+	}
+
+	/**
+	 * @return The mean of the samples in the window, 0 if there are none.
+	 */
+	public double getMean() {
+		return mSize == 0 ? 0.0 : mSum / mSize;
+	}
+
+	/**
+	 * @return Number of samples in the window.
+	 */
+	public int getSize() {
+		return mSize;
+	}
+
+	/**
+	 * Copies the bucket counts.
+	 *
+	 * @param out Array of at least one element per bucket.
+	 */
+	public void copyCounts(int[] out) {
+		System.arraycopy(mCounts, 0, out, 0, mCounts.length);
+	}
+
+	/**
+	 * @return Number of buckets.
+	 */
+	public int getBucketCount() {
+		return mCounts.length;
+	}
+
+	/**
+	 * Clears every sample.
+	 */
+	public void reset() {
+		Arrays.fill(mCounts, 0);
+		mNext = 0;
+		mSize = 0;
+		mSum = 0.0;
+	}
+}
@@ -0,0 +1,115 @@
+package com.team5817.frc2025;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.team5817.frc2025.RobotState.VisionUpdate;
+import com.team5817.frc2025.subsystems.vision.VisionDevice;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.geometry.Translation2d;
+import com.team254.lib.geometry.Twist2d;
+
+/**
+ * Checks that RobotState recovers when odometry slips further than the
+ * innovation gate allows, with std devs as VisionDevice reports them.
+ */
+public class RobotStateInnovationGateTest {
+	private static final double kLoopSeconds = 0.02;
+	private static final int kOdometrySamplesPerLoop = 5;
+	private static final String[] kCameras = { "limelight-dom", "limelight-sub", "limelight-up" };
+	private static final double[] kLatencySeconds = { 0.03, 0.035, 0.045 };
+	private static final Translation2d kFieldToOdom = new Translation2d(1.5, -0.5);
+	// Two tags at 2 m
+	private static final double kVisionStdDev = VisionDevice.computeStdDev(2, 2.0, 0.1);
+	private static final double kSlipMeters = 0.8;
+	private static final double kConvergedMeters = 0.05;
+
+	private final RobotState mRobotState = RobotState.getInstance();
+	private final List<VisionUpdate> mBatch = new ArrayList<>(kCameras.length);
+	private final Random mRandom = new Random(5817);
+	private double mTime = 0.0;
+	private double mSlipTime = Double.POSITIVE_INFINITY;
+
+	private static Translation2d truth(double t) {
+		return new Translation2d(8.0 + 3.0 * Math.sin(0.2 * t), 4.0 + 2.0 * Math.cos(0.15 * t));
+	}
+
+	/**
+	 * Odometry, which jumps by the slip once it happens.
+	 */
+	private Pose2d odom(double t) {
+		Translation2d odom = truth(t).translateBy(kFieldToOdom.inverse());
+		if (t >= mSlipTime) {
+			odom = odom.translateBy(new Translation2d(kSlipMeters, 0.0));
+		}
+		return new Pose2d(odom, Rotation2d.fromRadians(0.1 * t));
+	}
+
+	private void loop() {
+		for (int s = 0; s < kOdometrySamplesPerLoop; s++) {
+			mTime += kLoopSeconds / kOdometrySamplesPerLoop;
+			mRobotState.addOdomObservations(mTime, odom(mTime), Twist2d.identity(), Twist2d.identity());
+		}
+
+		mBatch.clear();
+		for (int c = 0; c < kCameras.length; c++) {
+			double timestamp = mTime - kLatencySeconds[c];
+			Translation2d measured = truth(timestamp).translateBy(new Translation2d(
+					0.5 * kVisionStdDev * mRandom.nextGaussian(), 0.5 * kVisionStdDev * mRandom.nextGaussian()));
+			mBatch.add(new VisionUpdate(c, timestamp, 1.0, measured, kVisionStdDev, kCameras[c]));
+		}
+		mRobotState.addVisionUpdates(mBatch);
+	}
+
+	private double error() {
+		Pose2d estimate = mRobotState.getLatestGlobalKalmanPose();
+		return estimate.getTranslation().translateBy(truth(mTime).inverse()).norm();
+	}
+
+	@Test
+	public void reconvergesAfterOdometrySlip() {
+		mRobotState.reset(mTime, odom(mTime));
+		for (int i = 0; i < 250; i++) {
+			loop();
+		}
+		assertTrue(error() < kConvergedMeters, "converged before the slip: " + error());
+		int reseeds = mRobotState.getVisionReseedCount();
+
+		mSlipTime = mTime + 0.001;
+		loop();
+		assertTrue(error() > 0.5 * kSlipMeters, "the slip should move the estimate: " + error());
+
+		int loops = 0;
+		while (error() > kConvergedMeters && loops < 100) {
+			loop();
+			loops++;
+		}
+		assertTrue(loops < 25, "took " + loops + " loops to reconverge");
+		assertEquals(reseeds + 1, mRobotState.getVisionReseedCount());
+
+		// And stays there without re-seeding again
+		for (int i = 0; i < 250; i++) {
+			loop();
+			assertTrue(error() < kConvergedMeters, "diverged again: " + error());
+		}
+		assertEquals(reseeds + 1, mRobotState.getVisionReseedCount());
+	}
+
+	@Test
+	public void noReseedWhileTracking() {
+		mRobotState.reset(mTime, odom(mTime));
+		int reseeds = mRobotState.getVisionReseedCount();
+		for (int i = 0; i < 1000; i++) {
+			loop();
+		}
+		assertEquals(reseeds, mRobotState.getVisionReseedCount());
+		assertTrue(error() < kConvergedMeters, "error " + error());
+	}
+}
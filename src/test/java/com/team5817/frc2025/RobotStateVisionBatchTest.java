@@ -0,0 +1,164 @@
+package com.team5817.frc2025;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.team5817.frc2025.Constants.PoseEstimatorConstants;
+import com.team5817.frc2025.RobotState.VisionUpdate;
+import com.team5817.lib.util.MicroBenchmark;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.geometry.Translation2d;
+import com.team254.lib.geometry.Twist2d;
+
+/**
+ * Checks fusing one loop's frames from three cameras as a single batch, on a
+ * robot driving with 250 Hz odometry, and benchmarks it against fusing them
+ * one by one.
+ */
+public class RobotStateVisionBatchTest {
+	private static final double kLoopSeconds = 0.02;
+	private static final int kOdometrySamplesPerLoop = 5;
+	private static final String[] kCameras = { "limelight-dom", "limelight-sub", "limelight-up" };
+	// Camera latencies differ, so each frame is fused at a different point in the history
+	private static final double[] kLatencySeconds = { 0.03, 0.035, 0.045 };
+	private static final Translation2d kFieldToOdom = new Translation2d(1.5, -0.5);
+	private static final double kVisionStdDev = 0.05;
+	// Well inside the reported std dev so the innovation gate never rejects a frame
+	private static final double kVisionNoise = 0.01;
+
+	private final RobotState mRobotState = RobotState.getInstance();
+	private final List<VisionUpdate> mBatch = new ArrayList<>(kCameras.length);
+	private final Random mRandom = new Random(5817);
+	private double mTime = 0.0;
+
+	private static Translation2d truth(double t) {
+		return new Translation2d(8.0 + 3.0 * Math.sin(0.2 * t), 4.0 + 2.0 * Math.cos(0.15 * t));
+	}
+
+	private static Pose2d odom(double t) {
+		return new Pose2d(truth(t).translateBy(kFieldToOdom.inverse()), Rotation2d.fromRadians(0.1 * t));
+	}
+
+	private void start() {
+		mRobotState.reset(mTime, odom(mTime));
+	}
+
+	/**
+	 * Adds the odometry samples of one control loop.
+	 */
+	private void odometry() {
+		for (int s = 0; s < kOdometrySamplesPerLoop; s++) {
+			mTime += kLoopSeconds / kOdometrySamplesPerLoop;
+			mRobotState.addOdomObservations(mTime, odom(mTime), Twist2d.identity(), Twist2d.identity());
+		}
+	}
+
+	/**
+	 * Fills the batch with one frame per camera.
+	 */
+	private void frames() {
+		mBatch.clear();
+		for (int c = 0; c < kCameras.length; c++) {
+			double timestamp = mTime - kLatencySeconds[c];
+			Translation2d measured = truth(timestamp).translateBy(new Translation2d(
+					kVisionNoise * mRandom.nextGaussian(), kVisionNoise * mRandom.nextGaussian()));
+			mBatch.add(new VisionUpdate(c, timestamp, 1.0, measured, kVisionStdDev, kCameras[c]));
+		}
+	}
+
+	/**
+	 * Runs one control loop: the odometry samples since the last loop, then one
+	 * frame per camera.
+	 */
+	private void loop(boolean batched) {
+		odometry();
+		frames();
+		if (batched) {
+			mRobotState.addVisionUpdates(mBatch);
+		} else {
+			for (VisionUpdate update : mBatch) {
+				mRobotState.addVisionUpdate(update);
+			}
+		}
+	}
+
+	private long fusedFrames() {
+		long fused = 0;
+		for (String camera : kCameras) {
+			fused += mRobotState.getFusedFrameCount(camera);
+		}
+		return fused;
+	}
+
+	private void assertConverged() {
+		Pose2d estimate = mRobotState.getLatestGlobalKalmanPose();
+		Translation2d expected = truth(mTime);
+		assertEquals(expected.x(), estimate.getTranslation().x(), 0.05);
+		assertEquals(expected.y(), estimate.getTranslation().y(), 0.05);
+	}
+
+	@Test
+	public void batchFusesEveryFrame() {
+		for (boolean batched : new boolean[] { false, true }) {
+			start();
+			// Frames from before the reset are stale, and the first fresh one seeds the
+			// filter instead of being fused
+			for (int i = 0; i < 3; i++) {
+				loop(batched);
+			}
+			long fusedBefore = fusedFrames();
+			for (int i = 0; i < 500; i++) {
+				loop(batched);
+			}
+			assertEquals(500L * kCameras.length, fusedFrames() - fusedBefore, batched ? "batched" : "one by one");
+			assertConverged();
+		}
+	}
+
+	@Test
+	public void lateFrameDoesNotDropTheBatch() {
+		start();
+		for (int i = 0; i < 100; i++) {
+			loop(true);
+		}
+
+		// A camera that stalled sends a frame from before the vision horizon along with the fresh ones
+		for (double age : new double[] { 0.8, PoseEstimatorConstants.kVisionMaxAgeSeconds - 0.05 }) {
+			odometry();
+			frames();
+			mBatch.set(0, new VisionUpdate(0, mTime - age, 1.0, truth(mTime - age), kVisionStdDev, kCameras[0]));
+			long lateBefore = mRobotState.getFusedFrameCount(kCameras[0]);
+			long fusedBefore = fusedFrames();
+			mRobotState.addVisionUpdates(mBatch);
+
+			boolean fresh = age < PoseEstimatorConstants.kVisionMaxAgeSeconds;
+			assertEquals(fresh ? 1 : 0, mRobotState.getFusedFrameCount(kCameras[0]) - lateBefore, "age " + age);
+			assertEquals(fresh ? 3 : 2, fusedFrames() - fusedBefore, "age " + age);
+			assertConverged();
+		}
+	}
+
+	@Test
+	@Tag("benchmark")
+	public void batchAgainstSingleUpdates() {
+		start();
+		MicroBenchmark.Result single = MicroBenchmark.run("Loop with one addVisionUpdate per camera", 5_000, 20_000,
+				() -> loop(false));
+		assertConverged();
+
+		start();
+		MicroBenchmark.Result batch = MicroBenchmark.run("Loop with one addVisionUpdates batch", 5_000, 20_000,
+				() -> loop(true));
+		assertConverged();
+
+		System.out.println(String.format("Batched vision fusion: %.2fx the per-camera loop cost",
+				batch.nanosPerOp / single.nanosPerOp));
+	}
+}
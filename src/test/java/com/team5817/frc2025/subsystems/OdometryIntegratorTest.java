@@ -0,0 +1,229 @@
+package com.team5817.frc2025.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.team5817.frc2025.Constants;
+import com.team5817.lib.util.MicroBenchmark;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.geometry.Translation2d;
+
+/**
+ * Checks the primitive odometry integration against the object based one it
+ * replaced, and benchmarks a control loop's worth of odometry samples on both.
+ */
+public class OdometryIntegratorTest {
+	private static final int kSamples = 2500;
+	private static final double kPeriodSeconds = 0.004;
+	private static final double kEpsilon = 1e-9;
+
+	// A recorded-like drive: curving, accelerating, with one wheel slipping now and then
+	private final double[] mTimestamps = new double[kSamples];
+	private final double[] mHeadings = new double[kSamples];
+	private final double[][] mDistances = new double[kSamples][4];
+	private final double[][] mAngles = new double[kSamples][4];
+
+	private int mNext = 0;
+
+	public OdometryIntegratorTest() {
+		Random random = new Random(5817);
+		double[] distances = new double[4];
+		for (int s = 0; s < kSamples; s++) {
+			double t = s * kPeriodSeconds;
+			mTimestamps[s] = t;
+			mHeadings[s] = 0.8 * Math.sin(0.5 * t);
+			double speed = 2.0 * Math.min(t, 1.5);
+			for (int i = 0; i < 4; i++) {
+				double step = speed * kPeriodSeconds * (1.0 + 0.01 * random.nextGaussian());
+				if (random.nextInt(200) == 0) {
+					step *= 3.0;
+				}
+				distances[i] += step;
+				mDistances[s][i] = distances[i];
+				mAngles[s][i] = 30.0 * Math.sin(0.3 * t) + 2.0 * random.nextGaussian();
+			}
+		}
+	}
+
+	@Test
+	public void matchesObjectIntegration() {
+		OdometryIntegrator integrator = new OdometryIntegrator(4);
+		LegacyWheelOdometry legacy = new LegacyWheelOdometry();
+		for (int s = 0; s < kSamples; s++) {
+			integrator.update(mTimestamps[s], mHeadings[s], mDistances[s], mAngles[s]);
+			legacy.update(mTimestamps[s], mHeadings[s], mDistances[s], mAngles[s]);
+
+			assertEquals(legacy.mPose.getTranslation().x(), integrator.getX(), kEpsilon, "x at sample " + s);
+			assertEquals(legacy.mPose.getTranslation().y(), integrator.getY(), kEpsilon, "y at sample " + s);
+			assertEquals(0.0, Math.IEEEremainder(legacy.mPose.getRotation().getRadians() - integrator.getHeading(),
+					2.0 * Math.PI), kEpsilon, "heading at sample " + s);
+			assertEquals(legacy.mVelocity.x(), integrator.getVelocityX(), kEpsilon, "vx at sample " + s);
+			assertEquals(legacy.mVelocity.y(), integrator.getVelocityY(), kEpsilon, "vy at sample " + s);
+		}
+	}
+
+	@Test
+	@Tag("benchmark")
+	public void samplesPerControlLoop() {
+		// The odometry thread integrates five samples for every 20 ms control loop
+		int samplesPerLoop = (int) Math.round(Constants.kLooperDt / kPeriodSeconds);
+		OdometryIntegrator integrator = new OdometryIntegrator(4);
+		MicroBenchmark.Result primitive = MicroBenchmark.run("OdometryIntegrator, one loop of samples", 10_000,
+				50_000, () -> {
+					for (int i = 0; i < samplesPerLoop; i++) {
+						int s = nextSample();
+						integrator.update(mTimestamps[s], mHeadings[s], mDistances[s], mAngles[s]);
+					}
+					MicroBenchmark.sink = integrator.getX();
+				});
+
+		LegacyWheelOdometry legacy = new LegacyWheelOdometry();
+		MicroBenchmark.Result objects = MicroBenchmark.run("Object integration, one loop of samples", 10_000, 50_000,
+				() -> {
+					for (int i = 0; i < samplesPerLoop; i++) {
+						int s = nextSample();
+						legacy.update(mTimestamps[s], mHeadings[s], mDistances[s], mAngles[s]);
+					}
+					MicroBenchmark.sink = legacy.mPose.getTranslation().x();
+				});
+		System.out.println(String.format("  %.0f B and %.0f ns per loop less than the object integration",
+				objects.bytesPerOp - primitive.bytesPerOp, objects.nanosPerOp - primitive.nanosPerOp));
+
+		assertEquals(0.0, primitive.bytesPerOp, 0.0, "integration should not allocate");
+	}
+
+	private int nextSample() {
+		int s = mNext;
+		mNext = (mNext + 1) % kSamples;
+		return s;
+	}
+
+	/**
+	 * The WheelTracker integration before it moved to primitives, kept as the
+	 * reference for behavior and cost.
+	 */
+	private static class LegacyWheelOdometry {
+		private static class WheelProperties {
+			double previousEncDistance = 0;
+			Translation2d position;
+			Translation2d startingPosition;
+			Pose2d estimatedRobotPose = new Pose2d();
+		}
+
+		private final WheelProperties[] wheels = new WheelProperties[4];
+		Pose2d mPose = new Pose2d();
+		Translation2d mVelocity = new Translation2d();
+		private Pose2d last_velocity_sample = new Pose2d();
+		private double last_sample_timestamp = 0.0;
+
+		LegacyWheelOdometry() {
+			for (int i = 0; i < wheels.length; i++) {
+				WheelProperties w = new WheelProperties();
+				w.startingPosition = Constants.SwerveConstants.swerveModuleLocations[i];
+				w.position = w.startingPosition;
+				wheels[i] = w;
+			}
+		}
+
+		void update(double timestamp, double robotHeading, double[] driveDistances, double[] wheelAnglesDegrees) {
+			double x = 0.0;
+			double y = 0.0;
+			Rotation2d heading = Rotation2d.fromRadians(robotHeading);
+
+			double avg_delta = 0.0;
+			double[] deltas = new double[4];
+			for (int i = 0; i < wheels.length; i++) {
+				WheelProperties w = wheels[i];
+				updateWheelOdometry(w, robotHeading, driveDistances[i], wheelAnglesDegrees[i]);
+				double delta = w.estimatedRobotPose
+						.getTranslation()
+						.translateBy(mPose.getTranslation().inverse())
+						.norm();
+				deltas[i] = delta;
+				avg_delta += delta;
+			}
+			avg_delta /= 4;
+
+			int min__dev_idx = 0;
+			double min_dev = Double.MAX_VALUE;
+			List<WheelProperties> accurateModules = new ArrayList<>();
+			for (int i = 0; i < deltas.length; i++) {
+				WheelProperties w = wheels[i];
+				double dev = Math.abs(deltas[i] - avg_delta);
+				if (dev < min_dev) {
+					min_dev = dev;
+					min__dev_idx = i;
+				}
+				if (dev <= 0.01) {
+					accurateModules.add(w);
+				}
+			}
+
+			if (accurateModules.isEmpty()) {
+				accurateModules.add(wheels[min__dev_idx]);
+			}
+
+			int n = accurateModules.size();
+
+			for (WheelProperties w : accurateModules) {
+				x += w.estimatedRobotPose.getTranslation().x();
+				y += w.estimatedRobotPose.getTranslation().y();
+			}
+			final Pose2d new_pose = new Pose2d(new Translation2d(x / n, y / n), heading);
+
+			double sample_window = timestamp - last_sample_timestamp;
+			if (sample_window > 0.02) {
+				final Translation2d translation = (new_pose.transformBy(last_velocity_sample.inverse())
+						.getTranslation());
+				mVelocity = translation.scale(1.0 / sample_window);
+				last_sample_timestamp = timestamp;
+				last_velocity_sample = new_pose;
+			}
+			mPose = new_pose;
+
+			for (WheelProperties w : wheels) {
+				w.position = mPose.transformBy(Pose2d.fromTranslation(w.startingPosition)).getTranslation();
+			}
+		}
+
+		private void updateWheelOdometry(WheelProperties props, double robotHeading, double currentEncDistance,
+				double wheelAngleDegrees) {
+			double deltaEncDistance = currentEncDistance - props.previousEncDistance;
+			Rotation2d wheelAngle = Rotation2d.fromDegrees(wheelAngleDegrees)
+					.rotateBy(Rotation2d.fromRadians(robotHeading));
+			Translation2d deltaPosition = new Translation2d(wheelAngle.cos() * deltaEncDistance,
+					wheelAngle.sin() * deltaEncDistance);
+
+			double xCorrectionFactor = 1.0;
+			double yCorrectionFactor = 1.0;
+
+			if (Math.signum(deltaPosition.x()) == 1.0) {
+				xCorrectionFactor = (8.782 - .89) / 9.44;
+			} else if (Math.signum(deltaPosition.x()) == -1.0) {
+				xCorrectionFactor = (8.782 - .89) / 9.46;
+			}
+
+			if (Math.signum(deltaPosition.y()) == 1.0) {
+				yCorrectionFactor = -(-8 + .89) / 8.71;
+			} else if (Math.signum(deltaPosition.y()) == -1.0) {
+				yCorrectionFactor = -(-8 + .89) / 8.62;
+			}
+
+			deltaPosition = new Translation2d(deltaPosition.x() * xCorrectionFactor,
+					deltaPosition.y() * yCorrectionFactor);
+			Translation2d updatedPosition = props.position.translateBy(deltaPosition);
+			Pose2d wheelPose = new Pose2d(updatedPosition, Rotation2d.fromRadians(robotHeading));
+			props.estimatedRobotPose = wheelPose.transformBy(Pose2d.fromTranslation(props.startingPosition.inverse()));
+
+			props.position = updatedPosition;
+			props.previousEncDistance = currentEncDistance;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.team5817.frc2025.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.team5817.lib.util.OdometrySampleBuffer;
+
+/**
+ * Checks that re-running OdometryIntegrator over the drained samples, as
+ * WheelTracker does in replay, reproduces the integrated poses bit for bit,
+ * including across pose resets and samples dropped on a full buffer.
+ */
+public class OdometryReplayTest {
+	private static final double kPeriodSeconds = 0.004;
+	private static final int kBufferCapacity = 64;
+
+	private final Random mRandom = new Random(5817);
+	private final double[] mDistances = new double[4];
+	private final double[] mAngles = new double[4];
+	private double mTime = 0.0;
+
+	// Robot side: the odometry thread's integrator and its hand-off buffer
+	private final OdometryIntegrator mRobotIntegrator = new OdometryIntegrator(4);
+	private final OdometrySampleBuffer mBuffer = new OdometrySampleBuffer(kBufferCapacity, 4);
+	private int mRobotResetCount = 0;
+
+	// Replay side, fed only what the robot would log
+	private final OdometryIntegrator mReplayIntegrator = new OdometryIntegrator(4);
+	private final OdometrySampleBuffer.Sample mSample = new OdometrySampleBuffer.Sample(4);
+	private int mReplayResetCount = 0;
+	private final double[] mReplayDistances = new double[4];
+	private final double[] mReplayAngles = new double[4];
+
+	private static final double[] kResetPose = { 3.2, 1.1, 0.7 };
+
+	/**
+	 * One odometry thread sample, as WheelTracker.updateRobotPose takes it.
+	 */
+	private void produce() {
+		mTime += kPeriodSeconds;
+		double heading = 0.6 * Math.sin(0.7 * mTime);
+		for (int i = 0; i < 4; i++) {
+			mDistances[i] += 0.01 * (1.0 + 0.05 * mRandom.nextGaussian());
+			mAngles[i] = 25.0 * Math.sin(0.4 * mTime) + mRandom.nextGaussian();
+		}
+		if (!mBuffer.reserve()) {
+			return;
+		}
+		mRobotIntegrator.update(mTime, heading, mDistances, mAngles);
+		mBuffer.offer(mTime, heading, mRobotIntegrator.getX(), mRobotIntegrator.getY(),
+				mRobotIntegrator.getHeading(), mRobotIntegrator.getVelocityX(), mRobotIntegrator.getVelocityY(),
+				mRobotResetCount, mRobotIntegrator.getModuleDeltas(), mDistances, mAngles);
+	}
+
+	private void reset() {
+		mRobotResetCount++;
+		mRobotIntegrator.resetPose(kResetPose[0], kResetPose[1], kResetPose[2]);
+	}
+
+	/**
+	 * Drains the buffer and re-integrates every sample from its logged inputs,
+	 * as WheelTracker.replaySamples does.
+	 *
+	 * @return Number of samples drained.
+	 */
+	private int drainAndReplay() {
+		int n = 0;
+		while (n < kBufferCapacity && mBuffer.poll(mSample)) {
+			if (mSample.resetCount != mReplayResetCount) {
+				mReplayIntegrator.resetPose(kResetPose[0], kResetPose[1], kResetPose[2]);
+				mReplayResetCount = mSample.resetCount;
+			}
+			System.arraycopy(mSample.moduleDistances, 0, mReplayDistances, 0, 4);
+			System.arraycopy(mSample.moduleAngles, 0, mReplayAngles, 0, 4);
+			mReplayIntegrator.update(mSample.timestamp, mSample.gyroHeading, mReplayDistances, mReplayAngles);
+
+			assertEquals(0, Double.compare(mSample.x, mReplayIntegrator.getX()), "x at " + mSample.timestamp);
+			assertEquals(0, Double.compare(mSample.y, mReplayIntegrator.getY()), "y at " + mSample.timestamp);
+			assertEquals(0, Double.compare(mSample.heading, mReplayIntegrator.getHeading()),
+					"heading at " + mSample.timestamp);
+			assertEquals(0, Double.compare(mSample.vx, mReplayIntegrator.getVelocityX()),
+					"vx at " + mSample.timestamp);
+			assertEquals(0, Double.compare(mSample.vy, mReplayIntegrator.getVelocityY()),
+					"vy at " + mSample.timestamp);
+			n++;
+		}
+		return n;
+	}
+
+	@Test
+	public void replayReproducesIntegration() {
+		int drained = 0;
+		for (int tick = 0; tick < 500; tick++) {
+			// Five samples per 20 ms tick, with the odd slow tick
+			int samples = tick % 97 == 0 ? 30 : 5;
+			for (int s = 0; s < samples; s++) {
+				produce();
+			}
+			if (tick == 200 || tick == 350) {
+				reset();
+			}
+			drained += drainAndReplay();
+		}
+		assertTrue(drained > 2000);
+		assertEquals(2, mReplayResetCount);
+	}
+
+	@Test
+	public void replayReproducesIntegrationAcrossDrops() {
+		for (int tick = 0; tick < 100; tick++) {
+			// A stalled control loop lets the buffer overflow every few ticks
+			int samples = tick % 10 == 0 ? 2 * kBufferCapacity : 5;
+			for (int s = 0; s < samples; s++) {
+				produce();
+			}
+			drainAndReplay();
+		}
+		assertTrue(mBuffer.getDroppedCount() > 0);
+	}
+}
@@ -0,0 +1,84 @@
+package com.team5817.frc2025.subsystems.vision;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.team5817.lib.util.MicroBenchmark;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Checks LimelightHandle reads and writes the Limelight's topics, and
+ * benchmarks a tick's worth of them against the lookups by name
+ * LimelightHelpers does, on a local NetworkTables instance.
+ */
+public class LimelightHandleTest {
+	private static final String kName = "limelight-test";
+
+	private NetworkTableInstance mInstance;
+	private LimelightHandle mHandle;
+	private double mYaw = 0.0;
+
+	@BeforeEach
+	public void setUp() {
+		mInstance = NetworkTableInstance.create();
+		mHandle = new LimelightHandle(mInstance, kName);
+
+		NetworkTable table = mInstance.getTable(kName);
+		table.getEntry("fps").setDouble(90.0);
+		table.getEntry("tid").setDouble(7.0);
+		table.getEntry("tv").setDouble(1.0);
+		table.getEntry("hb").setDouble(1234.0);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		mInstance.close();
+	}
+
+	@Test
+	public void readsWhatWasPublished() {
+		assertEquals(90.0, mHandle.getFps(), 0.0);
+		assertEquals(7, mHandle.getTagId());
+		assertTrue(mHandle.hasTarget());
+		assertEquals(1234L, mHandle.getHeartbeat());
+
+		mHandle.publishRobotOrientation(90.0, 1.0, 0.0, 0.0, 0.0, 0.0);
+		assertArrayEquals(new double[] { 90.0, 1.0, 0.0, 0.0, 0.0, 0.0 },
+				mInstance.getTable(kName).getEntry("robot_orientation_set").getDoubleArray(new double[0]), 0.0);
+	}
+
+	@Test
+	@Tag("benchmark")
+	public void visionDeviceTick() {
+		// What a VisionDevice reads and writes every loop
+		MicroBenchmark.Result handle = MicroBenchmark.run("LimelightHandle tick", 50_000, 200_000, () -> {
+			double sum = mHandle.getFps() + mHandle.getTagId() + mHandle.getHeartbeat()
+					+ (mHandle.hasTarget() ? 1.0 : 0.0);
+			mHandle.publishRobotOrientation(mYaw++, 0.0, 0.0, 0.0, 0.0, 0.0);
+			MicroBenchmark.sink = sum;
+		});
+
+		// The same through LimelightHelpers' table and entry lookups by name, for reference
+		MicroBenchmark.run("Lookup by name tick", 50_000, 200_000, () -> {
+			double sum = entry("fps") + entry("tid") + entry("hb") + (entry("tv") == 1.0 ? 1.0 : 0.0);
+			double[] orientation = new double[6];
+			orientation[0] = mYaw++;
+			mInstance.getTable(kName).getEntry("robot_orientation_set").setDoubleArray(orientation);
+			MicroBenchmark.sink = sum;
+		});
+
+		assertEquals(0.0, handle.bytesPerOp, 0.0, "a tick through the handle should not allocate");
+	}
+
+	private double entry(String key) {
+		return mInstance.getTable(kName).getEntry(key).getDouble(0.0);
+	}
+}
@@ -0,0 +1,83 @@
+package com.team5817.frc2025.subsystems.vision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.team5817.frc2025.subsystems.vision.LimelightHelpers.PoseEstimate;
+
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+
+/**
+ * Checks that MegaTag2 frames are timestamped with their capture time in the
+ * local time base, to within a millisecond.
+ */
+public class LimelightHelpersTest {
+	private static final double kToleranceSeconds = 0.001;
+
+	private static double[] botpose(double latencyMs) {
+		return new double[] { 3.0, 4.0, 0.0, 0.0, 0.0, 90.0, latencyMs, 0, 0.0, 0.0, 0.0 };
+	}
+
+	/**
+	 * Builds a frame as a client would receive it: captured at a local time,
+	 * published latency later, and received after some network delay.
+	 */
+	private static TimestampedDoubleArray frame(double captureSeconds, double latencyMs, double networkDelayMs,
+			long serverTimeOffsetMicros) {
+		long publishMicros = Math.round((captureSeconds + latencyMs / 1000.0) * 1e6);
+		long receiveMicros = publishMicros + Math.round(networkDelayMs * 1000.0);
+		return new TimestampedDoubleArray(receiveMicros, publishMicros + serverTimeOffsetMicros, botpose(latencyMs));
+	}
+
+	@Test
+	public void captureTimestampSubtractsLatency() {
+		assertEquals(10.0, LimelightHelpers.captureTimestampSeconds(10_035_200L, 35.2), kToleranceSeconds);
+		assertEquals(0.0, LimelightHelpers.captureTimestampSeconds(0L, 0.0), kToleranceSeconds);
+		// Microsecond resolution survives late in a long session
+		assertEquals(7200.123456, LimelightHelpers.captureTimestampSeconds(7_200_150_456L, 27.0), 1e-6);
+	}
+
+	@Test
+	public void serverOffsetIsRemoved() {
+		double capture = 42.5;
+		for (long offset : new long[] { 0L, 1_234_567_890L, -987_654_321L }) {
+			PoseEstimate estimate = LimelightHelpers.toPoseEstimate(frame(capture, 31.7, 15.0, offset), true, offset);
+			assertEquals(capture, estimate.timestampSeconds, kToleranceSeconds, "offset " + offset);
+			assertEquals(31.7, estimate.latency, 0.0);
+		}
+	}
+
+	@Test
+	public void networkDelayIsNotCountedAsLatency() {
+		double capture = 120.0;
+		double networkDelayMs = 12.0;
+		long offset = 5_000_000L;
+		TimestampedDoubleArray frame = frame(capture, 25.0, networkDelayMs, offset);
+
+		PoseEstimate estimate = LimelightHelpers.toPoseEstimate(frame, true, offset);
+		assertEquals(capture, estimate.timestampSeconds, kToleranceSeconds);
+
+		// Timestamping from the receive time puts the frame the network delay late
+		PoseEstimate received = LimelightHelpers.toPoseEstimate(frame, true);
+		assertEquals(networkDelayMs / 1000.0, received.timestampSeconds - capture, kToleranceSeconds);
+		assertTrue(received.timestampSeconds - capture > kToleranceSeconds);
+	}
+
+	@Test
+	public void unsyncedServerTimeFallsBackToReceiveTime() {
+		double capture = 8.0;
+		TimestampedDoubleArray synced = frame(capture, 20.0, 0.0, 0L);
+		TimestampedDoubleArray unsynced = new TimestampedDoubleArray(synced.timestamp, 0L, synced.value);
+
+		PoseEstimate estimate = LimelightHelpers.toPoseEstimate(unsynced, true, 3_000_000L);
+		assertEquals(capture, estimate.timestampSeconds, kToleranceSeconds);
+	}
+
+	@Test
+	public void emptyFrameIsSkipped() {
+		assertNull(LimelightHelpers.toPoseEstimate(new TimestampedDoubleArray(1L, 1L, new double[0]), true, 0L));
+	}
+}
@@ -0,0 +1,179 @@
+package com.team5817.frc2025.subsystems.vision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.DoubleFunction;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.team5817.frc2025.Constants;
+import com.team5817.frc2025.RobotState.VisionUpdate;
+import com.team5817.frc2025.field.FieldLayout;
+import com.team5817.frc2025.subsystems.vision.LimelightHelpers.PoseEstimate;
+import com.team5817.frc2025.subsystems.vision.LimelightHelpers.RawFiducial;
+import com.team5817.lib.util.MicroBenchmark;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.geometry.Translation2d;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+
+/**
+ * Checks the multi-camera solve on fiducial sets generated from the field
+ * layout for a known robot pose, and reports its share of the loop budget.
+ */
+public class MultiCameraFiducialSolverTest {
+	private static final double kEpsilon = 1e-6;
+	private static final double kMaxRangeMeters = 5.0;
+	private static final double kMaxTxDegrees = 30.0;
+	private static final double kMaxTyDegrees = 25.0;
+
+	// Two cameras on the front corners, pitched up and toed out
+	private static final Transform3d kLeftCamera = new Transform3d(new Translation3d(0.1, 0.2, 0.25),
+			new Rotation3d(0.0, Math.toRadians(-15.0), Math.toRadians(15.0)));
+	private static final Transform3d kRightCamera = new Transform3d(new Translation3d(0.1, -0.2, 0.25),
+			new Rotation3d(0.0, Math.toRadians(-15.0), Math.toRadians(-15.0)));
+
+	// Odometry disagrees with the field by a constant offset, the heading comes from the gyro
+	private static final Translation2d kFieldToOdom = new Translation2d(-7.0, 2.5);
+
+	private final MultiCameraFiducialSolver mSolver = new MultiCameraFiducialSolver();
+
+	/**
+	 * Robot field pose while driving up to the blue reef.
+	 */
+	private static Pose2d truth(double t) {
+		return new Pose2d(2.0 + 0.8 * t, 4.0 + 0.3 * t, Rotation2d.fromRadians(0.4 * t));
+	}
+
+	private static final DoubleFunction<Pose2d> kOdometry = t -> {
+		Pose2d pose = truth(t);
+		return new Pose2d(pose.getTranslation().translateBy(kFieldToOdom), pose.getRotation());
+	};
+
+	/**
+	 * Builds the frame a camera would publish of every tag it can see.
+	 *
+	 * @param robot         robot field pose at capture
+	 * @param robotToCamera camera extrinsics
+	 * @param timestamp     capture time
+	 * @param noise         source of measurement noise, or null for none
+	 */
+	private static PoseEstimate frame(Pose2d robot, Transform3d robotToCamera, double timestamp, Random noise) {
+		List<RawFiducial> fiducials = new ArrayList<>();
+		Pose2d fieldToRobotInverse = robot.inverse();
+		for (AprilTag tag : FieldLayout.kTagMap.getTags()) {
+			Translation2d robotToTag2d = fieldToRobotInverse
+					.transformBy(Pose2d.fromTranslation(new Translation2d(tag.pose.getX(), tag.pose.getY())))
+					.getTranslation();
+			Translation3d cameraToTag = new Translation3d(robotToTag2d.x(), robotToTag2d.y(), tag.pose.getZ())
+					.minus(robotToCamera.getTranslation())
+					.rotateBy(robotToCamera.getRotation().unaryMinus());
+			if (cameraToTag.getX() <= 0.0) {
+				continue;
+			}
+			double tx = -Math.toDegrees(Math.atan2(cameraToTag.getY(), cameraToTag.getX()));
+			double ty = Math.toDegrees(Math.atan2(cameraToTag.getZ(), cameraToTag.getX()));
+			double distance = cameraToTag.getNorm();
+			if (distance > kMaxRangeMeters || Math.abs(tx) > kMaxTxDegrees || Math.abs(ty) > kMaxTyDegrees) {
+				continue;
+			}
+			if (noise != null) {
+				tx += 0.1 * noise.nextGaussian();
+				ty += 0.1 * noise.nextGaussian();
+				distance *= 1.0 + 0.01 * noise.nextGaussian();
+			}
+			fiducials.add(new RawFiducial(tag.ID, tx, ty, 0.5, distance, distance, 0.1));
+		}
+		RawFiducial[] raw = fiducials.toArray(new RawFiducial[0]);
+		return new PoseEstimate(robot.wpi(), timestamp, 30.0, raw.length, 0.0, 0.0, 0.5, raw, true);
+	}
+
+	private void assertSolvesTo(Pose2d expected, Optional<VisionUpdate> solved, double tolerance) {
+		assertTrue(solved.isPresent());
+		assertEquals(expected.getTranslation().x(), solved.get().getFieldToVision().x(), tolerance);
+		assertEquals(expected.getTranslation().y(), solved.get().getFieldToVision().y(), tolerance);
+	}
+
+	@Test
+	public void solvesExactFiducials() {
+		Pose2d robot = truth(1.0);
+		mSolver.reset();
+		mSolver.addFrame(frame(robot, kLeftCamera, 1.0, null), kLeftCamera);
+		mSolver.addFrame(frame(robot, kRightCamera, 1.0, null), kRightCamera);
+
+		assertTrue(mSolver.getObservationCount() >= 2, "the cameras should see the reef");
+		assertEquals(2, mSolver.getFrameCount());
+		Optional<VisionUpdate> solved = mSolver.solve(kOdometry);
+		assertSolvesTo(robot, solved, kEpsilon);
+		assertEquals(1.0, solved.get().getTimestamp(), 0.0);
+		assertEquals(0.0, mSolver.getResidualRms(), kEpsilon);
+	}
+
+	@Test
+	public void shiftsOlderFramesByOdometry() {
+		// The right camera's frame was captured 40 ms before the left one while turning
+		mSolver.reset();
+		mSolver.addFrame(frame(truth(0.96), kRightCamera, 0.96, null), kRightCamera);
+		mSolver.addFrame(frame(truth(1.0), kLeftCamera, 1.0, null), kLeftCamera);
+
+		Optional<VisionUpdate> solved = mSolver.solve(kOdometry);
+		assertSolvesTo(truth(1.0), solved, kEpsilon);
+		assertEquals(1.0, solved.get().getTimestamp(), 0.0);
+	}
+
+	@Test
+	public void averagesNoisyFiducials() {
+		Random noise = new Random(5817);
+		Pose2d robot = truth(1.0);
+		for (int trial = 0; trial < 100; trial++) {
+			mSolver.reset();
+			mSolver.addFrame(frame(robot, kLeftCamera, 1.0, noise), kLeftCamera);
+			mSolver.addFrame(frame(robot, kRightCamera, 1.0, noise), kRightCamera);
+			assertSolvesTo(robot, mSolver.solve(kOdometry), 0.1);
+		}
+	}
+
+	@Test
+	public void emptyWithoutObservations() {
+		mSolver.reset();
+		mSolver.addFrame(null, kLeftCamera);
+		assertTrue(mSolver.solve(kOdometry).isEmpty());
+	}
+
+	@Test
+	@Tag("benchmark")
+	public void shareOfLoopBudget() {
+		// One camera, both cameras, and both cameras with a frame left over from the last tick
+		List<List<PoseEstimate>> sets = new ArrayList<>();
+		sets.add(List.of(frame(truth(1.0), kLeftCamera, 1.0, null)));
+		sets.add(List.of(frame(truth(1.0), kLeftCamera, 1.0, null), frame(truth(1.0), kRightCamera, 1.0, null)));
+		sets.add(List.of(frame(truth(0.98), kLeftCamera, 0.98, null), frame(truth(0.98), kRightCamera, 0.98, null),
+				frame(truth(1.0), kLeftCamera, 1.0, null), frame(truth(1.0), kRightCamera, 1.0, null)));
+
+		double budgetNanos = Constants.kLooperDt * 1e9;
+		for (List<PoseEstimate> set : sets) {
+			int[] observations = { 0 };
+			MicroBenchmark.Result result = MicroBenchmark.run("Multi-camera solve, " + set.size() + " frames", 20_000,
+					100_000, () -> {
+						mSolver.reset();
+						for (int f = 0; f < set.size(); f++) {
+							mSolver.addFrame(set.get(f), f % 2 == 0 ? kLeftCamera : kRightCamera);
+						}
+						observations[0] = mSolver.getObservationCount();
+						MicroBenchmark.sink = mSolver.solve(kOdometry).get().getFieldToVision().x();
+					});
+			System.out.println(String.format("  %d observations, %.3f%% of the loop", observations[0],
+					100.0 * result.nanosPerOp / budgetNanos));
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.team5817.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.team5817.frc2025.Constants;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N2;
+
+/**
+ * Checks LinearDiagonalKalmanFilter against the UnscentedKalmanFilter
+ * RobotState used before, with the same constant-state models and tuning, and
+ * benchmarks a rewind and replay of the filter like RobotState's vision fusion.
+ * <p>
+ * There are no recorded match logs in the repo, so the measurements are a
+ * generated drift of the odometry error with Gaussian vision noise.
+ */
+public class LinearDiagonalKalmanFilterTest {
+	private static final double kDtSeconds = 0.01;
+	private static final int kSteps = 3000;
+	private static final double kXhatEpsilon = 1e-9;
+	private static final double kRelativePEpsilon = 1e-6;
+
+	private final Matrix<N2, N1> mZero = VecBuilder.fill(0.0, 0.0);
+
+	private final double[] mMeasurementsX = new double[kSteps];
+	private final double[] mMeasurementsY = new double[kSteps];
+	private final double[] mStdDevs = new double[kSteps];
+
+	public LinearDiagonalKalmanFilterTest() {
+		Random random = new Random(5817);
+		for (int s = 0; s < kSteps; s++) {
+			double t = s * kDtSeconds;
+			double stdDev = 0.02 + 0.3 * random.nextDouble();
+			mMeasurementsX[s] = 0.05 * t + stdDev * random.nextGaussian();
+			mMeasurementsY[s] = -0.2 * Math.sin(0.5 * t) + stdDev * random.nextGaussian();
+			mStdDevs[s] = stdDev;
+		}
+	}
+
+	private UnscentedKalmanFilter<N2, N2, N2> makeUnscented() {
+		return new UnscentedKalmanFilter<>(
+				Nat.N2(),
+				Nat.N2(),
+				(x, u) -> VecBuilder.fill(0.0, 0.0),
+				(x, u) -> x,
+				Constants.kStateStdDevs,
+				Constants.kLocalMeasurementStdDevs, kDtSeconds);
+	}
+
+	private LinearDiagonalKalmanFilter<N2, N2> makeLinear() {
+		return new LinearDiagonalKalmanFilter<>(
+				Nat.N2(),
+				Constants.kStateStdDevs,
+				Constants.kLocalMeasurementStdDevs, kDtSeconds);
+	}
+
+	@Test
+	public void matchesUnscentedFilter() {
+		UnscentedKalmanFilter<N2, N2, N2> unscented = makeUnscented();
+		LinearDiagonalKalmanFilter<N2, N2> linear = makeLinear();
+
+		for (int s = 0; s < kSteps; s++) {
+			unscented.predict(mZero, kDtSeconds);
+			linear.predict(kDtSeconds);
+
+			// Vision arrives every few loops, sometimes several frames in one loop
+			if (s % 3 == 0) {
+				int frames = 1 + s % 2;
+				for (int f = 0; f < frames; f++) {
+					int m = (s + f) % kSteps;
+					unscented.correct(mZero, VecBuilder.fill(mMeasurementsX[m], mMeasurementsY[m]),
+							VecBuilder.fill(mStdDevs[m], mStdDevs[m]));
+					linear.correct(0, mMeasurementsX[m], mStdDevs[m]);
+					linear.correct(1, mMeasurementsY[m], mStdDevs[m]);
+				}
+			}
+
+			for (int i = 0; i < 2; i++) {
+				assertEquals(unscented.getXhat(i), linear.getXhat(i), kXhatEpsilon, "x-hat " + i + " at step " + s);
+				double expectedP = unscented.getP(i, i);
+				assertEquals(expectedP, linear.getP(i, i), kRelativePEpsilon * expectedP, "P " + i + " at step " + s);
+			}
+			assertEquals(0.0, unscented.getP(0, 1), kRelativePEpsilon * unscented.getP(0, 0));
+		}
+	}
+
+	@Test
+	public void persistentStdDevsMatchUnscentedFilter() {
+		UnscentedKalmanFilter<N2, N2, N2> unscented = makeUnscented();
+		LinearDiagonalKalmanFilter<N2, N2> linear = makeLinear();
+
+		for (int s = 0; s < 200; s++) {
+			unscented.predict(mZero, kDtSeconds);
+			linear.predict(mZero, kDtSeconds);
+			Matrix<N2, N1> y = VecBuilder.fill(mMeasurementsX[s], mMeasurementsY[s]);
+			if (s == 50) {
+				unscented.correct(mZero, y, VecBuilder.fill(0.5, 0.5));
+				linear.correct(mZero, y, VecBuilder.fill(0.5, 0.5));
+			} else {
+				unscented.correct(mZero, y);
+				linear.correct(mZero, y);
+			}
+			for (int i = 0; i < 2; i++) {
+				assertEquals(unscented.getXhat(i), linear.getXhat(i), kXhatEpsilon);
+				assertEquals(unscented.getP(i, i), linear.getP(i, i), kRelativePEpsilon * unscented.getP(i, i));
+			}
+		}
+	}
+
+	@Test
+	@Tag("benchmark")
+	public void rewindAndReplay() {
+		// A frame 50 ms old: restore the filter there, correct, and predict back up to now
+		int replaySteps = 5;
+		double[] xHat = new double[2];
+		double[] P = new double[2];
+		LinearDiagonalKalmanFilter<N2, N2> linear = makeLinear();
+		int[] step = { 0 };
+		MicroBenchmark.Result diagonal = MicroBenchmark.run("LinearDiagonalKalmanFilter rewind and replay", 20_000,
+				200_000, () -> {
+					int s = step[0]++ % kSteps;
+					for (int i = 0; i < 2; i++) {
+						xHat[i] = linear.getXhat(i);
+						P[i] = linear.getP(i, i);
+					}
+					for (int i = 0; i < 2; i++) {
+						linear.setXhat(i, xHat[i]);
+						linear.setP(i, P[i]);
+					}
+					linear.correct(0, mMeasurementsX[s], mStdDevs[s]);
+					linear.correct(1, mMeasurementsY[s], mStdDevs[s]);
+					for (int i = 0; i < replaySteps; i++) {
+						linear.predict(kDtSeconds);
+					}
+					MicroBenchmark.sink = linear.getXhat(0);
+				});
+
+		// The same through the unscented filter's matrices, for reference
+		UnscentedKalmanFilter<N2, N2, N2> unscented = makeUnscented();
+		MicroBenchmark.run("UnscentedKalmanFilter rewind and replay", 2_000, 10_000, () -> {
+			int s = step[0]++ % kSteps;
+			unscented.setXhat(unscented.getXhat().copy());
+			unscented.setP(unscented.getP().copy());
+			unscented.correct(mZero, VecBuilder.fill(mMeasurementsX[s], mMeasurementsY[s]),
+					VecBuilder.fill(mStdDevs[s], mStdDevs[s]));
+			for (int i = 0; i < replaySteps; i++) {
+				unscented.predict(mZero, kDtSeconds);
+			}
+			MicroBenchmark.sink = unscented.getXhat(0);
+		});
+
+		assertEquals(0.0, diagonal.bytesPerOp, 0.0, "a rewind and replay should not allocate");
+	}
+}
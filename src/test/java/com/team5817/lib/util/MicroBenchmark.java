@@ -0,0 +1,73 @@
+package com.team5817.lib.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal harness for benchmark tests. Warms a body up so the JIT settles,
+ * then reports the mean time and heap allocation per call on the calling
+ * thread, like JMH's average time mode with the GC profiler.
+ * <p>
+ * Timings depend on the machine, so benchmarks only print them. Allocation
+ * counts are exact and safe to assert on. Benchmarks are tagged "benchmark"
+ * and run with {@code ./gradlew benchmark}, not with the unit tests.
+ */
+public final class MicroBenchmark {
+	/**
+	 * The cost of one call of a benchmarked body.
+	 */
+	public static final class Result {
+		public final String name;
+		public final double nanosPerOp;
+		public final double bytesPerOp;
+
+		Result(String name, double nanosPerOp, double bytesPerOp) {
+			this.name = name;
+			this.nanosPerOp = nanosPerOp;
+			this.bytesPerOp = bytesPerOp;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %.1f ns/op, %.1f B/op", name, nanosPerOp, bytesPerOp);
+		}
+	}
+
+	/**
+	 * Benchmarked bodies write here so the JIT can't drop their results.
+	 */
+	public static volatile double sink;
+
+	private static final com.sun.management.ThreadMXBean kThreadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	private MicroBenchmark() {
+	}
+
+	/**
+	 * Runs a body and prints its cost.
+	 *
+	 * @param name        Name printed with the result.
+	 * @param warmupOps   Calls made before measuring.
+	 * @param measuredOps Calls measured.
+	 * @param body        The operation to measure.
+	 * @return The mean cost per call.
+	 */
+	public static Result run(String name, int warmupOps, int measuredOps, Runnable body) {
+		for (int i = 0; i < warmupOps; i++) {
+			body.run();
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long startBytes = kThreadBean.getThreadAllocatedBytes(threadId);
+		long startNanos = System.nanoTime();
+		for (int i = 0; i < measuredOps; i++) {
+			body.run();
+		}
+		long elapsedNanos = System.nanoTime() - startNanos;
+		long allocatedBytes = kThreadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+		Result result = new Result(name, (double) elapsedNanos / measuredOps, (double) allocatedBytes / measuredOps);
+		System.out.println(result);
+		return result;
+	}
+}
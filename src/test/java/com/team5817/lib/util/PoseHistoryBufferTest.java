@@ -0,0 +1,130 @@
+package com.team5817.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.team5817.frc2025.Constants.PoseEstimatorConstants;
+import com.team254.lib.geometry.Pose2d;
+import com.team254.lib.geometry.Rotation2d;
+import com.team254.lib.util.InterpolatingDouble;
+import com.team254.lib.util.InterpolatingTreeMap;
+
+/**
+ * Checks PoseHistoryBuffer against the InterpolatingTreeMap it replaced in
+ * RobotState, and benchmarks how RobotState uses it in a loop: the odometry
+ * samples go in, and each camera's frame looks up the pose at its latency.
+ */
+public class PoseHistoryBufferTest {
+	private static final double kPeriodSeconds = 0.004;
+	private static final double kLookbackSeconds = 0.1;
+	// The tree map interpolates along a constant-curvature arc, the buffer linearly;
+	// between 4 ms samples the two differ by far less than this
+	private static final double kInterpolationEpsilon = 1e-4;
+
+	private final int mCapacity = PoseEstimatorConstants.kPoseHistoryCapacity;
+	private int mStep = 0;
+
+	private static double x(double t) {
+		return 3.0 * Math.cos(0.4 * t);
+	}
+
+	private static double y(double t) {
+		return 2.0 * Math.sin(0.7 * t);
+	}
+
+	private static double theta(double t) {
+		return Math.IEEEremainder(1.3 * t, 2.0 * Math.PI);
+	}
+
+	@Test
+	public void matchesTreeMap() {
+		PoseHistoryBuffer buffer = new PoseHistoryBuffer(mCapacity);
+		InterpolatingTreeMap<InterpolatingDouble, Pose2d> map = new InterpolatingTreeMap<>(mCapacity);
+		double[] out = new double[3];
+
+		for (int s = 0; s < 3 * mCapacity; s++) {
+			double t = s * kPeriodSeconds;
+			Pose2d pose = new Pose2d(x(t), y(t), Rotation2d.fromRadians(theta(t)));
+			buffer.put(new InterpolatingDouble(t), pose);
+			map.put(new InterpolatingDouble(t), pose);
+			assertEquals(map.size(), buffer.size());
+
+			// On a sample, between samples, and past both ends of the history
+			for (double query : new double[] { t - 2 * kPeriodSeconds, t - kLookbackSeconds + 0.3 * kPeriodSeconds,
+					t + 1.0, t - 10.0 }) {
+				Pose2d expected = map.getInterpolated(new InterpolatingDouble(query));
+				assertTrue(buffer.getInterpolated(query, out));
+				assertEquals(expected.getTranslation().x(), out[0], kInterpolationEpsilon);
+				assertEquals(expected.getTranslation().y(), out[1], kInterpolationEpsilon);
+				assertEquals(0.0, Math.IEEEremainder(expected.getRotation().getRadians() - out[2], 2.0 * Math.PI),
+						kInterpolationEpsilon);
+			}
+		}
+		assertEquals(map.firstKey().value, buffer.firstTimestamp(), 0.0);
+		assertEquals(map.lastKey().value, buffer.lastTimestamp(), 0.0);
+	}
+
+	@Test
+	public void outOfOrderInsertKeepsTimeOrder() {
+		PoseHistoryBuffer buffer = new PoseHistoryBuffer(4);
+		buffer.put(0.0, 0.0, 0.0, 0.0);
+		buffer.put(2.0, 2.0, 0.0, 0.0);
+		buffer.put(1.0, 1.0, 0.0, 0.0);
+		double[] out = new double[3];
+		assertTrue(buffer.getInterpolated(1.5, out));
+		assertEquals(1.5, out[0], 1e-12);
+
+		// A full buffer drops the oldest to make room
+		buffer.put(3.0, 3.0, 0.0, 0.0);
+		buffer.put(0.5, 0.5, 0.0, 0.0);
+		assertEquals(4, buffer.size());
+		assertEquals(0.5, buffer.firstTimestamp(), 0.0);
+	}
+
+	@Test
+	@Tag("benchmark")
+	public void robotStateLoop() {
+		// Five odometry samples per loop, and a frame from each of three cameras
+		double[] cameraLatencies = { 0.03, 0.035, 0.045 };
+		PoseHistoryBuffer buffer = new PoseHistoryBuffer(mCapacity);
+		double[] out = new double[3];
+		MicroBenchmark.Result primitive = MicroBenchmark.run("PoseHistoryBuffer, one RobotState loop", 20_000, 100_000,
+				() -> {
+					double t = 0.0;
+					for (int i = 0; i < 5; i++) {
+						t = nextTimestamp();
+						buffer.put(t, x(t), y(t), theta(t));
+					}
+					for (double latency : cameraLatencies) {
+						buffer.getInterpolated(t - latency, out);
+					}
+					MicroBenchmark.sink = out[0];
+				});
+
+		InterpolatingTreeMap<InterpolatingDouble, Pose2d> map = new InterpolatingTreeMap<>(mCapacity);
+		MicroBenchmark.Result tree = MicroBenchmark.run("InterpolatingTreeMap, one RobotState loop", 20_000, 100_000,
+				() -> {
+					double t = 0.0;
+					for (int i = 0; i < 5; i++) {
+						t = nextTimestamp();
+						map.put(new InterpolatingDouble(t), new Pose2d(x(t), y(t), Rotation2d.fromRadians(theta(t))));
+					}
+					Pose2d pose = null;
+					for (double latency : cameraLatencies) {
+						pose = map.getInterpolated(new InterpolatingDouble(t - latency));
+					}
+					MicroBenchmark.sink = pose.getTranslation().x();
+				});
+		System.out.println(String.format("  tree map garbage: %.0f B per loop, %.1f KB/s", tree.bytesPerOp,
+				tree.bytesPerOp * 50.0 / 1024.0));
+
+		assertEquals(0.0, primitive.bytesPerOp, 0.0, "puts and lookups should not allocate");
+	}
+
+	private double nextTimestamp() {
+		return mStep++ * kPeriodSeconds;
+	}
+}